@@ -0,0 +1,55 @@
+#!/bin/sh
+# Training run for the AppCDS archive (used by Dockerfile.fast-startup).
+# Starts the extracted app with -XX:ArchiveClassesAtExit, drives every endpoint a few times so the
+# classes loaded on the real request path (Jackson, Tomcat, MVC, services) land in the archive,
+# then stops the JVM gracefully so the archive is written.
+set -e
+
+APP_DIR=${APP_DIR:-/app}
+PORT=${PORT:-5477}
+ROUNDS=${ROUNDS:-5}
+BASE="http://localhost:$PORT/blackrock/challenge/v1"
+
+cd "$APP_DIR"
+java -XX:ArchiveClassesAtExit=app.jsa -Dspring.aot.enabled=true -jar app.jar &
+PID=$!
+
+tries=0
+until wget -q -O /dev/null "http://localhost:$PORT/actuator/health"; do
+    tries=$((tries + 1))
+    if [ "$tries" -gt 120 ]; then
+        kill "$PID"
+        echo "app did not become healthy" >&2
+        exit 1
+    fi
+    sleep 1
+done
+
+TX='[{"date":"2023-02-28 15:49:20","amount":375},{"date":"2023-07-01 21:59:00","amount":620},
+     {"date":"2023-10-12 20:15:30","amount":250},{"date":"2023-12-17 08:09:45","amount":480}]'
+ENRICHED='{"wage":50000,"transactions":[{"date":"2023-02-28 15:49:20","amount":375,"ceiling":400,"remnant":25},
+     {"date":"2023-07-01 21:59:00","amount":620,"ceiling":700,"remnant":80}]}'
+RULES='"q":[{"fixed":0,"start":"2023-07-01 00:00:00","end":"2023-07-31 23:59:59"}],
+       "p":[{"extra":25,"start":"2023-10-01 08:00:00","end":"2023-12-31 19:59:59"}],
+       "k":[{"start":"2023-01-01 00:00:00","end":"2023-12-31 23:59:59"}]'
+FILTER="{\"wage\":50000,$RULES,\"transactions\":$TX}"
+RETURNS="{\"age\":29,\"wage\":50000,\"inflation\":5.5,$RULES,\"transactions\":$TX}"
+
+post() {
+    wget -q -O /dev/null --header='Content-Type: application/json' --post-data="$2" "$BASE$1"
+}
+
+i=0
+while [ "$i" -lt "$ROUNDS" ]; do
+    post /transactions/parse "$TX"
+    post /transactions/validator "$ENRICHED"
+    post /transactions/filter "$FILTER"
+    post /returns/nps "$RETURNS"
+    post /returns/index "$RETURNS"
+    wget -q -O /dev/null "$BASE/performance"
+    i=$((i + 1))
+done
+
+kill -TERM "$PID"
+wait "$PID" || true
+test -s app.jsa
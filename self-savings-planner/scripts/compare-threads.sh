@@ -0,0 +1,85 @@
+#!/usr/bin/env bash
+# Compares throughput and tail latency of platform-thread and virtual-thread request execution.
+#
+# Runs LoadHarness (the open-model load test, -Ploadtest) once per mode and arrival rate against
+# POST /returns/nps, then prints a markdown table built from its JSON reports (also written to $OUT).
+# Latency is measured from each request's scheduled send time, so queueing past saturation shows up
+# in full. Admission may wait up to 5 s, so that queueing appears as latency rather than as 429s.
+#
+# A second table repeats the comparison with more concurrent requests than Tomcat has threads: slow
+# clients (load.slowClients) trickle their bodies and hold a request thread each, at a fixed rate of
+# measured traffic, for each server.tomcat.threads.max:slow-clients pair in SATURATION.
+#
+# Usage:
+#   scripts/compare-threads.sh
+#
+# Environment:
+#   RATES         space-separated arrival rates, requests/s   (default "25 50 100 150")
+#   DURATION      measured length per run                      (default 30s)
+#   WARMUP        unmeasured warmup per run, same rate         (default 15s)
+#   TRANSACTIONS  transactions per request body                (default 100)
+#   SATURATION    threads.max:slow-clients pairs               (default "20:60 200:400")
+#   SLOW_RATE     measured arrival rate next to slow clients   (default 25)
+#   TRICKLE       time a slow client takes to send a body      (default 5s)
+#   CARRIERS      jdk.virtualThreadScheduler.maxPoolSize       (default 1024; the JDK's 256 stalls at 400 slow clients)
+#   OUT           result file                                  (default target/threads-comparison.md)
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RATES=${RATES:-"25 50 100 150"}
+DURATION=${DURATION:-30s}
+WARMUP=${WARMUP:-15s}
+TRANSACTIONS=${TRANSACTIONS:-100}
+SATURATION=${SATURATION:-"20:60 200:400"}
+SLOW_RATE=${SLOW_RATE:-25}
+TRICKLE=${TRICKLE:-5s}
+CARRIERS=${CARRIERS:-1024}
+OUT=${OUT:-target/threads-comparison.md}
+
+command -v jq > /dev/null || { echo "jq is required (https://jqlang.org)" >&2; exit 2; }
+
+run_mode() {
+    local mode=$1 virtual=$2
+    for rate in $RATES; do
+        local label="threads-$mode-$rate"
+        ./mvnw -q -B -Ploadtest test -Dload.mix=nps=1 -Dload.transactions="$TRANSACTIONS" \
+            -Dload.rate="$rate" -Dload.duration="$DURATION" -Dload.warmup="$WARMUP" -Dload.label="$label" \
+            -Dspring.threads.virtual.enabled="$virtual" -Dplanner.admission.max-wait=5s > "target/$label.log"
+        jq -r --arg mode "$mode" --arg rate "$rate" '.all | "| \($mode) | \($rate) | \(.throughput) | "
+            + "\(.latencyMs.p50) | \(.latencyMs.p99) | \(.latencyMs.max) | \(.rejected + .errors) |"' \
+            "target/loadtest/$label.json"
+    done
+}
+
+run_saturated() {
+    local mode=$1 virtual=$2
+    for pair in $SATURATION; do
+        local max=${pair%%:*} slow=${pair##*:}
+        local label="threads-$mode-max$max-slow$slow"
+        ./mvnw -q -B -Ploadtest test -Dload.mix=nps=1 -Dload.transactions="$TRANSACTIONS" \
+            -Dload.rate="$SLOW_RATE" -Dload.duration="$DURATION" -Dload.warmup="$WARMUP" -Dload.label="$label" \
+            -Dload.slowClients="$slow" -Dload.trickle="$TRICKLE" -Dserver.tomcat.threads.max="$max" \
+            -Dloadtest.maxCarriers="$CARRIERS" \
+            -Dspring.threads.virtual.enabled="$virtual" -Dplanner.admission.max-wait=5s > "target/$label.log"
+        jq -r --arg mode "$mode" --arg max "$max" '"| \($mode) | \($max) | \(.slowClients.clients) | "
+            + "\(.all.throughput) | \(.all.latencyMs.p50) | \(.all.latencyMs.p99) | \(.all.latencyMs.max) | "
+            + "\(.all.rejected + .all.errors) | \(.slowClients.throughput) |"' "target/loadtest/$label.json"
+    done
+}
+
+mkdir -p "$(dirname "$OUT")" target/loadtest
+{
+    echo "nps@$TRANSACTIONS, $DURATION per rate after $WARMUP warmup, CPUs: $(nproc), $(java -version 2>&1 | head -1)"
+    echo
+    echo "| mode | offered req/s | completed req/s | p50 ms | p99 ms | max ms | non-2xx |"
+    echo "|------|---------------|-----------------|--------|--------|--------|---------|"
+    run_mode platform false
+    run_mode virtual true
+    echo
+    echo "Saturated: nps@$TRANSACTIONS at $SLOW_RATE req/s next to slow clients sending one body per $TRICKLE"
+    echo
+    echo "| mode | threads.max | slow clients | completed req/s | p50 ms | p99 ms | max ms | non-2xx | slow req/s |"
+    echo "|------|-------------|--------------|-----------------|--------|--------|--------|---------|------------|"
+    run_saturated platform false
+    run_saturated virtual true
+} | tee "$OUT"
@@ -0,0 +1,71 @@
+#!/usr/bin/env bash
+# Measures startup of the app launched by the given command:
+#   - time until /actuator/health answers UP
+#   - time until the first POST /returns/nps succeeds (time-to-first-response)
+#
+# Usage:
+#   scripts/measure-startup.sh java -jar target/self-savings-planner-0.0.1-SNAPSHOT.jar
+#   CONTAINER=ssp-startup scripts/measure-startup.sh \
+#       docker run --rm --name ssp-startup -p 5477:5477 blk-hacking-ind-chetan-dhanjal:fast-startup
+#
+# CONTAINER names a container to stop afterwards when the command is a `docker run`.
+# Set MAX_TTFR_MS to fail (exit 1) when time-to-first-response regresses past a budget.
+set -euo pipefail
+
+PORT=${PORT:-5477}
+TIMEOUT_MS=${TIMEOUT_MS:-60000}
+BASE="http://localhost:$PORT"
+BODY='{"age":29,"wage":50000,"inflation":5.5,"q":[],"p":[],
+       "k":[{"start":"2023-01-01 00:00:00","end":"2023-12-31 23:59:59"}],
+       "transactions":[{"date":"2023-02-28 15:49:20","amount":375}]}'
+
+if [ $# -eq 0 ]; then
+    echo "usage: $0 <command that starts the app>" >&2
+    exit 2
+fi
+
+# Milliseconds since the epoch. `date +%s%3N` is GNU-only, so use bash 5's EPOCHREALTIME and fall back to perl
+# (present on macOS, whose /bin/bash is 3.2).
+if [ -n "${EPOCHREALTIME:-}" ]; then
+    now_ms() { local t=${EPOCHREALTIME/[.,]/}; echo $(( 10#$t / 1000 )); }
+else
+    now_ms() { perl -MTime::HiRes=time -e 'printf "%d\n", time * 1000'; }
+fi
+
+start=$(now_ms)
+"$@" > "${LOG_FILE:-/dev/null}" 2>&1 &
+pid=$!
+cleanup() {
+    kill "$pid" 2>/dev/null || true
+    if [ -n "${CONTAINER:-}" ]; then docker stop "$CONTAINER" > /dev/null 2>&1 || true; fi
+    wait "$pid" 2>/dev/null || true
+}
+trap cleanup EXIT
+
+health_ms=""
+ttfr_ms=""
+while [ -z "$ttfr_ms" ]; do
+    elapsed=$(( $(now_ms) - start ))
+    if [ "$elapsed" -gt "$TIMEOUT_MS" ]; then
+        echo "app did not respond within ${TIMEOUT_MS} ms" >&2
+        exit 1
+    fi
+    if [ -z "$health_ms" ] && curl -fs "$BASE/actuator/health" > /dev/null 2>&1; then
+        health_ms=$elapsed
+    fi
+    if curl -fs -H 'Content-Type: application/json' -d "$BODY" \
+            "$BASE/blackrock/challenge/v1/returns/nps" > /dev/null 2>&1; then
+        ttfr_ms=$(( $(now_ms) - start ))
+        health_ms=${health_ms:-$ttfr_ms}
+    else
+        sleep 0.02
+    fi
+done
+
+echo "health-up-ms=$health_ms"
+echo "time-to-first-response-ms=$ttfr_ms"
+
+if [ -n "${MAX_TTFR_MS:-}" ] && [ "$ttfr_ms" -gt "$MAX_TTFR_MS" ]; then
+    echo "time-to-first-response ${ttfr_ms} ms exceeds budget ${MAX_TTFR_MS} ms" >&2
+    exit 1
+fi
@@ -2,8 +2,10 @@ package com.blackrock_hackathon.self_savings_planner;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class SelfSavingsPlannerApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,219 @@
+package com.blackrock_hackathon.self_savings_planner.batch;
+
+import com.blackrock_hackathon.self_savings_planner.config.BatchProperties;
+import com.blackrock_hackathon.self_savings_planner.dto.request.FilterRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.ReturnsRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.TransactionInput;
+import com.blackrock_hackathon.self_savings_planner.dto.response.EnrichedTransaction;
+import com.blackrock_hackathon.self_savings_planner.dto.response.ReturnsResponse;
+import com.blackrock_hackathon.self_savings_planner.dto.response.ValidTransaction;
+import com.blackrock_hackathon.self_savings_planner.service.CsvFormatException;
+import com.blackrock_hackathon.self_savings_planner.service.CsvTransactionReader;
+import com.blackrock_hackathon.self_savings_planner.service.PeriodSums;
+import com.blackrock_hackathon.self_savings_planner.service.ReturnsService;
+import com.blackrock_hackathon.self_savings_planner.service.TransactionService;
+import com.blackrock_hackathon.self_savings_planner.service.TransactionValidator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Non-web entry point for month-end reprocessing (profile {@code batch}).
+ *
+ * <p>Each input file is memory-mapped and parsed in parallel slices, then run through the same
+ * {@link TransactionService} / {@link ReturnsService} logic as the HTTP endpoints. Memory stays
+ * bounded by the slices in flight rather than the file:
+ * <ul>
+ *   <li>{@code PARSE} and {@code VALIDATE} write one NDJSON line per row as slices arrive. Validation
+ *       itself stays sequential because the wage cap and duplicate checks depend on transaction
+ *       order; only its duplicate set grows with the number of distinct rows.</li>
+ *   <li>{@code NPS} and {@code INDEX} fold each slice into a {@link PeriodSums} on the parser
+ *       thread and merge the partial sums in file order.</li>
+ * </ul>
+ * Every file ends with one summary line. A malformed row stops that file: the rows before it have
+ * already been written, its summary line carries the error with the line number in the file, and
+ * the run moves on to the next file. Throughput and GC statistics are logged at the end.
+ *
+ * <pre>
+ * java -jar app.jar --spring.profiles.active=batch \
+ *      --planner.batch.input=jan.csv,feb.csv --planner.batch.output=out.ndjson \
+ *      --planner.batch.mode=NPS --planner.batch.rules=rules.csv \
+ *      --planner.batch.wage=50000 --planner.batch.age=29 --planner.batch.inflation=5.5
+ * </pre>
+ */
+@Component
+@Profile("batch")
+public class BatchRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchRunner.class);
+
+    private final BatchProperties properties;
+    private final TransactionService transactionService;
+    private final ReturnsService returnsService;
+    private final ObjectWriter writer;
+
+    public BatchRunner(BatchProperties properties, TransactionService transactionService,
+                       ReturnsService returnsService, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.transactionService = transactionService;
+        this.returnsService = returnsService;
+        // One value per line into a shared buffered stream: the stream is neither closed nor flushed per value.
+        this.writer = objectMapper.writer()
+                .without(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                .without(StreamWriteFeature.FLUSH_PASSED_TO_STREAM);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (properties.input() == null || properties.input().isEmpty() || properties.output() == null) {
+            throw new IllegalArgumentException("planner.batch.input and planner.batch.output are required");
+        }
+        if (properties.mode() != BatchProperties.Mode.PARSE && !(properties.wage() != null && properties.wage() > 0)) {
+            throw new IllegalArgumentException("planner.batch.wage must be positive in " + properties.mode() + " mode");
+        }
+
+        ReturnsRequest rules = properties.rules() != null
+                ? CsvTransactionReader.readReturnsRequest(ByteBuffer.wrap(Files.readAllBytes(properties.rules())),
+                        properties.age(), properties.wage(), properties.inflation())
+                : new ReturnsRequest(properties.age(), properties.wage(), properties.inflation(),
+                        List.of(), List.of(), List.of(), List.of());
+
+        GcSnapshot gcBefore = GcSnapshot.take();
+        long start = System.nanoTime();
+        long rows = 0, bytes = 0, failed = 0;
+
+        int threads = properties.effectiveThreads();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(properties.output()), 1 << 16)) {
+            for (Path file : properties.input()) {
+                FileResult result = process(file, rules, pool, 2 * threads, out);
+                writeLine(out, result);
+
+                rows += result.rows();
+                bytes += Files.size(file);
+                if (result.error() != null) failed++;
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        GcSnapshot gc = GcSnapshot.take().minus(gcBefore);
+        log.info("Batch {} done: {} files ({} failed), {} rows, {} MB in {} s → {} rows/s, {} MB/s ({} threads)",
+                properties.mode(), properties.input().size(), failed, rows, String.format("%.1f", bytes / 1e6),
+                String.format("%.2f", seconds), String.format("%.0f", rows / seconds),
+                String.format("%.1f", bytes / 1e6 / seconds), threads);
+        log.info("GC: {} collections, {} ms paused ({} % of wall time), heap used {} MB",
+                gc.count(), gc.timeMs(), String.format("%.1f", gc.timeMs() / 10.0 / seconds),
+                (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) / (1024 * 1024));
+    }
+
+    private FileResult process(Path file, ReturnsRequest rules, ExecutorService pool, int window, OutputStream out)
+            throws IOException, InterruptedException {
+        String input = file.toString();
+        BatchProperties.Mode mode = properties.mode();
+        long sliceBytes = properties.sliceSize().toBytes();
+        Counts counts = new Counts();
+        try {
+            switch (mode) {
+                case PARSE -> MappedCsvSplitter.read(file, sliceBytes, window, pool,
+                        slice -> slice.stream().map(TransactionService::enrich).toList(),
+                        enriched -> {
+                            for (EnrichedTransaction tx : enriched) writeLine(out, new RowResult(input, "parsed", tx));
+                            counts.rows += enriched.size();
+                        });
+                case VALIDATE -> {
+                    TransactionValidator validator = transactionService.validator(
+                            new FilterRequest(rules.q(), rules.p(), rules.k(), properties.wage(), List.of()));
+                    MappedCsvSplitter.read(file, sliceBytes, window, pool, slice -> slice, slice -> {
+                        for (TransactionInput tx : slice) {
+                            Record checked = validator.next(tx);
+                            boolean valid = checked instanceof ValidTransaction;
+                            if (valid) counts.valid++;
+                            else counts.invalid++;
+                            writeLine(out, new RowResult(input, valid ? "valid" : "invalid", checked));
+                        }
+                        counts.rows += slice.size();
+                    });
+                }
+                case NPS, INDEX -> {
+                    PeriodSums sums = returnsService.newPeriodSums(rules);
+                    MappedCsvSplitter.read(file, sliceBytes, window, pool, slice -> {
+                        PeriodSums partial = sums.newPartial();
+                        for (TransactionInput tx : slice) partial.add(tx, null);
+                        return partial;
+                    }, partial -> {
+                        sums.merge(partial);
+                        counts.rows = sums.transactions();
+                    });
+                    ReturnsResponse result = mode == BatchProperties.Mode.NPS
+                            ? returnsService.calculateNpsReturns(rules, sums)
+                            : returnsService.calculateIndexReturns(rules, sums);
+                    return new FileResult(input, mode, counts.rows, null, null, result, null);
+                }
+            }
+        } catch (CsvFormatException e) {
+            log.warn("Batch {} stopped at a malformed row: {}", input, e.getMessage());
+            return counts.result(input, mode, e.getMessage());
+        }
+        return counts.result(input, mode, null);
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        writer.writeValue(out, value);
+        out.write('\n');
+    }
+
+    /** Rows seen so far in one file; only touched by the thread that writes the output. */
+    private static final class Counts {
+        long rows, valid, invalid;
+
+        FileResult result(String input, BatchProperties.Mode mode, String error) {
+            boolean validate = mode == BatchProperties.Mode.VALIDATE;
+            return new FileResult(input, mode, rows, validate ? valid : null, validate ? invalid : null, null, error);
+        }
+    }
+
+    /** One output line per row in the {@code PARSE} and {@code VALIDATE} modes. */
+    private record RowResult(String input, String status, Object transaction) {}
+
+    /** The last output line of every file; {@code result} for the returns modes, {@code error} when it failed. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private record FileResult(String input, BatchProperties.Mode mode, long rows, Long valid, Long invalid,
+                              ReturnsResponse result, String error) {}
+
+    private record GcSnapshot(long count, long timeMs) {
+
+        static GcSnapshot take() {
+            long count = 0, time = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count += Math.max(0, gc.getCollectionCount());
+                time += Math.max(0, gc.getCollectionTime());
+            }
+            return new GcSnapshot(count, time);
+        }
+
+        GcSnapshot minus(GcSnapshot other) {
+            return new GcSnapshot(count - other.count, timeMs - other.timeMs);
+        }
+    }
+}
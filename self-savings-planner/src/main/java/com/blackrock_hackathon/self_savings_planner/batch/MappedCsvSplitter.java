@@ -0,0 +1,122 @@
+package com.blackrock_hackathon.self_savings_planner.batch;
+
+import com.blackrock_hackathon.self_savings_planner.dto.request.TransactionInput;
+import com.blackrock_hackathon.self_savings_planner.service.CsvFormatException;
+import com.blackrock_hackathon.self_savings_planner.service.CsvTransactionReader;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Memory-maps a CSV file in record-aligned slices and parses them in parallel.
+ *
+ * <p>Slice boundaries are moved forward to the byte after the next {@code '\n'}, so no row is
+ * split. Each slice is capped at {@link #MAX_SLICE} bytes so it fits one {@link MappedByteBuffer}.
+ * Only a bounded window of slices is parsed ahead of the consumer, so memory does not grow with
+ * the file.
+ */
+final class MappedCsvSplitter {
+
+    static final long MAX_SLICE = 1L << 30;
+    private static final int SCAN_WINDOW = 64 * 1024;
+
+    /** Receives slice results on the calling thread, in file order. */
+    @FunctionalInterface
+    interface SliceConsumer<T> {
+        void accept(T slice) throws IOException;
+    }
+
+    private MappedCsvSplitter() {
+    }
+
+    /** Record-aligned {@code [start, end)} offsets of about {@code sliceBytes} each, covering the whole file. */
+    static List<long[]> slices(FileChannel channel, long sliceBytes) throws IOException {
+        long size = channel.size();
+        long target = Math.min(MAX_SLICE, Math.max(1, sliceBytes));
+        List<long[]> out = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = start + target >= size ? size : nextLineStart(channel, start + target, size);
+            out.add(new long[]{start, end});
+            start = end;
+        }
+        return out;
+    }
+
+    /**
+     * Parses the slices of {@code file} on {@code pool}, with at most {@code window} slices parsed
+     * or waiting to be consumed at a time. Each slice's rows are turned into a {@code T} by
+     * {@code perSlice} on the pool, then handed to {@code consumer} on the calling thread in file
+     * order. A {@link CsvFormatException} carries its line number within the whole file.
+     */
+    static <T> void read(Path file, long sliceBytes, int window, ExecutorService pool,
+                         Function<List<TransactionInput>, T> perSlice, SliceConsumer<T> consumer)
+            throws IOException, InterruptedException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<long[]> slices = slices(channel, sliceBytes);
+            ArrayDeque<Future<Parsed<T>>> pending = new ArrayDeque<>();
+            int next = 0;
+            int linesBefore = 0;
+            try {
+                while (next < slices.size() || !pending.isEmpty()) {
+                    while (next < slices.size() && pending.size() < Math.max(1, window)) {
+                        pending.add(submit(channel, slices.get(next++), perSlice, pool));
+                    }
+                    Parsed<T> parsed;
+                    try {
+                        parsed = pending.poll().get();
+                    } catch (ExecutionException e) {
+                        if (e.getCause() instanceof CsvFormatException ce) throw ce.shiftedBy(linesBefore);
+                        if (e.getCause() instanceof RuntimeException re) throw re;
+                        throw new IOException("Failed to parse " + file, e.getCause());
+                    }
+                    consumer.accept(parsed.value());
+                    linesBefore += parsed.lines();
+                }
+            } finally {
+                pending.forEach(f -> f.cancel(true));
+            }
+        }
+    }
+
+    private static <T> Future<Parsed<T>> submit(FileChannel channel, long[] slice,
+                                                Function<List<TransactionInput>, T> perSlice,
+                                                ExecutorService pool) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, slice[0], slice[1] - slice[0]);
+        boolean first = slice[0] == 0;
+        return pool.submit(() -> {
+            T value = perSlice.apply(CsvTransactionReader.readTransactions(mapped, 0, mapped.limit(), first));
+            int lines = 0;
+            for (int i = 0; i < mapped.limit(); i++) {
+                if (mapped.get(i) == '\n') lines++;
+            }
+            return new Parsed<>(value, lines);
+        });
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        long pos = from;
+        while (pos < size) {
+            int len = (int) Math.min(SCAN_WINDOW, size - pos);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, pos, len);
+            for (int i = 0; i < len; i++) {
+                if (window.get(i) == '\n') return pos + i + 1;
+            }
+            pos += len;
+        }
+        return size;
+    }
+
+    /** A slice's result and the number of lines it spans. */
+    private record Parsed<T>(T value, int lines) {}
+}
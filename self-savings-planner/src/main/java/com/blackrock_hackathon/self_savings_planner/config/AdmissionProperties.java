@@ -0,0 +1,23 @@
+package com.blackrock_hackathon.self_savings_planner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Weighted concurrency budget for the transaction and returns endpoints.
+ *
+ * @param enabled           turns admission control on or off
+ * @param maxConcurrentCost total cost units that may be in flight at once
+ * @param maxWait           how long a request may wait for budget before being shed
+ * @param retryAfter        value advertised in the {@code Retry-After} header of a 429
+ */
+@ConfigurationProperties(prefix = "planner.admission")
+public record AdmissionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("20000000") int maxConcurrentCost,
+        @DefaultValue("50ms") Duration maxWait,
+        @DefaultValue("1s") Duration retryAfter
+) {
+}
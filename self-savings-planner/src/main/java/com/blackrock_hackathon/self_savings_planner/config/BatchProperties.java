@@ -0,0 +1,42 @@
+package com.blackrock_hackathon.self_savings_planner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Offline batch run over local CSV files (profile {@code batch}).
+ *
+ * @param input     transaction files ({@code date,amount} rows), one account per file
+ * @param output    NDJSON result file: one line per row in the {@code PARSE} and {@code VALIDATE}
+ *                  modes, then one summary line per input file
+ * @param mode      which service path to run
+ * @param rules     optional CSV file of {@code q,…} / {@code p,…} / {@code k,…} rule rows
+ * @param wage      monthly wage used by validation and the tax benefit; required except in {@code PARSE}
+ * @param age       investor age for the returns modes
+ * @param inflation inflation percentage for the returns modes
+ * @param threads   parser threads; {@code 0} uses one per core
+ * @param sliceSize bytes per record-aligned slice; at most two slices per thread are held in memory
+ */
+@ConfigurationProperties(prefix = "planner.batch")
+public record BatchProperties(
+        List<Path> input,
+        Path output,
+        @DefaultValue("VALIDATE") Mode mode,
+        Path rules,
+        Double wage,
+        @DefaultValue("30") int age,
+        @DefaultValue("0") double inflation,
+        @DefaultValue("0") int threads,
+        @DefaultValue("8MB") DataSize sliceSize
+) {
+
+    public enum Mode { PARSE, VALIDATE, NPS, INDEX }
+
+    public int effectiveThreads() {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+}
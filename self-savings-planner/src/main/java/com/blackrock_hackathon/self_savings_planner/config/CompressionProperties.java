@@ -0,0 +1,29 @@
+package com.blackrock_hackathon.self_savings_planner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+/**
+ * Streaming gzip and zstd for request and response bodies.
+ *
+ * @param enabled                turns compression and request decompression on or off
+ * @param encodings              codings accepted on requests and offered on responses ({@code gzip}, {@code zstd}),
+ *                               preferred first when the client ranks them equally
+ * @param minResponseSize        responses smaller than this are sent uncompressed
+ * @param level                  gzip deflate level, 1 (fastest) to 9 (smallest); zstd always uses level 3
+ * @param mimeTypes              response content types that are compressed
+ * @param maxInflatedRequestSize limit on a decompressed request body, against compression bombs
+ */
+@ConfigurationProperties(prefix = "planner.compression")
+public record CompressionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue({"zstd", "gzip"}) List<String> encodings,
+        @DefaultValue("8KB") DataSize minResponseSize,
+        @DefaultValue("1") int level,
+        @DefaultValue({"application/json", "application/problem+json", "text/csv", "text/plain"}) List<String> mimeTypes,
+        @DefaultValue("512MB") DataSize maxInflatedRequestSize
+) {
+}
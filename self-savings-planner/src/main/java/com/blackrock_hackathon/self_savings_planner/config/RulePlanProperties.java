@@ -0,0 +1,13 @@
+package com.blackrock_hackathon.self_savings_planner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Server-side cache of compiled Q/P/K rule plans.
+ *
+ * @param maxEntries plans kept before the least recently used one is evicted
+ */
+@ConfigurationProperties(prefix = "planner.plans")
+public record RulePlanProperties(@DefaultValue("1000") int maxEntries) {
+}
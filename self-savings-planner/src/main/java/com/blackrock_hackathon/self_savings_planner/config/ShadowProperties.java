@@ -0,0 +1,22 @@
+package com.blackrock_hackathon.self_savings_planner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Sampled shadow verification of the optimized calculation paths against the reference
+ * {@code BigDecimal} implementations.
+ *
+ * @param enabled       turns shadow verification on or off
+ * @param sampleRate    fraction of requests re-run through the reference path (0–1)
+ * @param queueCapacity pending comparisons; samples arriving while the queue is full are dropped
+ * @param threads       background threads running the comparisons
+ */
+@ConfigurationProperties(prefix = "planner.shadow")
+public record ShadowProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("0.01") double sampleRate,
+        @DefaultValue("64") int queueCapacity,
+        @DefaultValue("1") int threads
+) {
+}
@@ -0,0 +1,21 @@
+package com.blackrock_hackathon.self_savings_planner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Per-request {@code Server-Timing} traces, requested with the {@code X-Planner-Trace} header.
+ *
+ * @param enabled         turns tracing on or off; off, the header is ignored
+ * @param secret          when set, only requests whose header value equals it are traced
+ * @param maxBufferedSize response bytes held back so the header can follow the body; a larger body
+ *                        is sent once this much is written and its timing stops there
+ */
+@ConfigurationProperties(prefix = "planner.trace")
+public record TraceProperties(
+        @DefaultValue("false") boolean enabled,
+        String secret,
+        @DefaultValue("1MB") DataSize maxBufferedSize
+) {
+}
@@ -0,0 +1,27 @@
+package com.blackrock_hackathon.self_savings_planner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Startup JIT warm-up that runs before the readiness state flips to ACCEPTING_TRAFFIC.
+ *
+ * @param enabled         runs the warm-up on startup
+ * @param timeBudget      hard cap on warm-up time
+ * @param transactions    transactions per synthetic request
+ * @param rules           Q, P and K periods per synthetic request
+ * @param settledCompileMs a round whose JIT compile time stays at or below this counts as settled
+ * @param settledRounds   consecutive settled rounds needed to finish early
+ */
+@ConfigurationProperties(prefix = "planner.warmup")
+public record WarmupProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("30s") Duration timeBudget,
+        @DefaultValue("500") int transactions,
+        @DefaultValue("12") int rules,
+        @DefaultValue("5") long settledCompileMs,
+        @DefaultValue("3") int settledRounds
+) {
+}
@@ -0,0 +1,41 @@
+package com.blackrock_hackathon.self_savings_planner.controller;
+
+import com.blackrock_hackathon.self_savings_planner.service.AdmissionRejectedException;
+import com.blackrock_hackathon.self_savings_planner.service.CsvFormatException;
+import com.blackrock_hackathon.self_savings_planner.service.InvalidGoalException;
+import com.blackrock_hackathon.self_savings_planner.service.InvalidGridException;
+import com.blackrock_hackathon.self_savings_planner.service.InvalidRulePlanException;
+import com.blackrock_hackathon.self_savings_planner.service.UnknownPlanException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    /** Shed load: 429 with a Retry-After hint in whole seconds. */
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<ProblemDetail> handleAdmissionRejected(AdmissionRejectedException ex) {
+        long seconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage()));
+    }
+
+    /** Malformed CSV, rule plan, grid or goal: 400 with the reason. */
+    @ExceptionHandler({CsvFormatException.class, InvalidRulePlanException.class, InvalidGridException.class,
+            InvalidGoalException.class})
+    public ResponseEntity<ProblemDetail> handleBadRequest(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest()
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage()));
+    }
+
+    @ExceptionHandler(UnknownPlanException.class)
+    public ResponseEntity<ProblemDetail> handleUnknownPlan(UnknownPlanException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, ex.getMessage()));
+    }
+}
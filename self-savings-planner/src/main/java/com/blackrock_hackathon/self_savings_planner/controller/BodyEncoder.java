@@ -0,0 +1,130 @@
+package com.blackrock_hackathon.self_savings_planner.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Compresses a response body with the stream of its {@link ContentCoding}. The stream writes into
+ * a shim that only collects its output, and the collected blocks are written to {@code target}
+ * after each call returns. So {@link #encodeNanos()} is the time spent compressing without the
+ * time spent writing to the socket, and socket writes happen outside
+ * {@link java.util.zip.GZIPOutputStream}'s {@code synchronized write}, where a blocked virtual
+ * thread would pin its carrier.
+ */
+final class BodyEncoder {
+
+    private final ContentCoding coding;
+    private final OutputStream target;
+    private final Collector collected = new Collector();
+    private final OutputStream encoder;
+    private long rawBytes;
+    private long encodedBytes;
+    private long encodeNanos;
+    private boolean finished;
+
+    BodyEncoder(ContentCoding coding, OutputStream target, int level) throws IOException {
+        this.coding = coding;
+        this.target = target;
+        long start = System.nanoTime();
+        this.encoder = coding.encoder(collected, level);
+        encodeNanos += System.nanoTime() - start;
+    }
+
+    void write(byte[] b, int off, int len) throws IOException {
+        long start = System.nanoTime();
+        try {
+            encoder.write(b, off, len);
+        } finally {
+            encodeNanos += System.nanoTime() - start;
+        }
+        rawBytes += len;
+        drain();
+    }
+
+    /** Emits everything written so far, where the coding supports it, and flushes the target. */
+    void flush() throws IOException {
+        long start = System.nanoTime();
+        try {
+            encoder.flush();
+        } finally {
+            encodeNanos += System.nanoTime() - start;
+        }
+        drain();
+        target.flush();
+    }
+
+    /** Ends the body and releases the encoder; the target is left open. */
+    void finish() throws IOException {
+        if (finished) return;
+        finished = true;
+        long start = System.nanoTime();
+        try {
+            encoder.close();
+        } finally {
+            encodeNanos += System.nanoTime() - start;
+        }
+        drain();
+    }
+
+    /** Releases the encoder if the body failed before {@link #finish()}, writing nothing more. */
+    void release() {
+        if (finished) return;
+        finished = true;
+        try {
+            encoder.close();
+        } catch (IOException ignored) {
+            // only the collector is written to, and the request has already failed
+        }
+    }
+
+    ContentCoding coding() {
+        return coding;
+    }
+
+    long rawBytes() {
+        return rawBytes;
+    }
+
+    long encodedBytes() {
+        return encodedBytes;
+    }
+
+    long encodeNanos() {
+        return encodeNanos;
+    }
+
+    private void drain() throws IOException {
+        if (collected.count == 0) return;
+        target.write(collected.buf, 0, collected.count);
+        encodedBytes += collected.count;
+        collected.count = 0;
+    }
+
+    /** Holds what the encoder writes until {@link #drain()}; {@code flush()} and {@code close()} stop here. */
+    private static final class Collector extends OutputStream {
+
+        private byte[] buf = new byte[16 * 1024];
+        private int count;
+
+        @Override
+        public void write(int b) {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (buf.length - count < len) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + len));
+            System.arraycopy(b, off, buf, count, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.blackrock_hackathon.self_savings_planner.controller;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Response wrapper that holds back the first {@code threshold} bytes of the body. If the body
+ * grows past that (or ends at exactly that size), the response is switched to the negotiated
+ * {@code Content-Encoding} and everything from then on is compressed and written through in
+ * blocks. Smaller bodies, and bodies written through a {@link WriteListener}, are written
+ * unchanged. The uncompressed {@code Content-Length} set by the application is never passed on.
+ */
+final class CompressingResponseWrapper extends HttpServletResponseWrapper {
+
+    private enum State { BUFFERING, COMPRESSING, PASSTHROUGH, FINISHED }
+
+    private final ContentCoding coding;
+    private final int threshold;
+    private final int level;
+    private final List<MediaType> mimeTypes;
+    private final byte[] pending;
+    private int pendingCount;
+    private State state = State.BUFFERING;
+    private BodyEncoder encoder;
+    private ServletOutputStream target;
+    private ServletOutputStream stream;
+    private PrintWriter writer;
+
+    CompressingResponseWrapper(HttpServletResponse response, ContentCoding coding, int threshold, int level,
+                               List<MediaType> mimeTypes) {
+        super(response);
+        this.coding = coding;
+        this.threshold = threshold;
+        this.level = level;
+        this.mimeTypes = mimeTypes;
+        this.pending = new byte[threshold];
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (writer != null) throw new IllegalStateException("getWriter() has already been called");
+        if (stream == null) stream = new Stream();
+        return stream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (stream != null) throw new IllegalStateException("getOutputStream() has already been called");
+            stream = new Stream();
+            writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) super.setHeader(name, value);
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) super.addHeader(name, value);
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) super.setIntHeader(name, value);
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) super.addIntHeader(name, value);
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) writer.flush();
+        if (stream != null) stream.flush();
+        if (state != State.BUFFERING) super.flushBuffer();
+    }
+
+    /** Once compressed bytes are written the body can no longer be reset, as if it were committed. */
+    @Override
+    public boolean isCommitted() {
+        return state == State.COMPRESSING || state == State.FINISHED || super.isCommitted();
+    }
+
+    @Override
+    public void resetBuffer() {
+        checkResettable();
+        super.resetBuffer();
+        pendingCount = 0;
+    }
+
+    @Override
+    public void reset() {
+        checkResettable();
+        super.reset();
+        pendingCount = 0;
+    }
+
+    /** Completes the body: writes a held-back small body as is, or ends the compressed stream. */
+    void finish() throws IOException {
+        if (stream == null) return;  // no body, e.g. after sendError
+        if (writer != null) writer.flush();
+        switch (state) {
+            case BUFFERING -> {
+                if (pendingCount >= threshold && compressible()) {
+                    startCompressing();
+                    encoder.finish();
+                } else {
+                    if (!getResponse().isCommitted()) super.setContentLength(pendingCount);
+                    passThrough();
+                }
+            }
+            case COMPRESSING -> encoder.finish();
+            default -> { }
+        }
+        state = State.FINISHED;
+    }
+
+    /** Releases the encoder if the request failed before {@link #finish()}. */
+    void release() {
+        if (encoder != null) encoder.release();
+    }
+
+    /** The compressor, or {@code null} if the body was sent uncompressed. */
+    BodyEncoder encoder() {
+        return encoder;
+    }
+
+    private void write(byte[] b, int off, int len) throws IOException {
+        switch (state) {
+            case BUFFERING -> {
+                if (pendingCount + len <= threshold) {
+                    System.arraycopy(b, off, pending, pendingCount, len);
+                    pendingCount += len;
+                    return;
+                }
+                if (compressible()) {
+                    startCompressing();
+                    encoder.write(b, off, len);
+                } else {
+                    passThrough();
+                    target.write(b, off, len);
+                }
+            }
+            case COMPRESSING -> encoder.write(b, off, len);
+            case PASSTHROUGH -> target.write(b, off, len);
+            case FINISHED -> throw new IOException("Response already finished");
+        }
+    }
+
+    private void checkResettable() {
+        if (state == State.COMPRESSING) throw new IllegalStateException("Cannot reset after compression has started");
+    }
+
+    private boolean compressible() {
+        HttpServletResponse response = (HttpServletResponse) getResponse();
+        int status = response.getStatus();
+        if (status == SC_NO_CONTENT || status == SC_NOT_MODIFIED || response.isCommitted()) return false;
+        if (response.getHeader(HttpHeaders.CONTENT_ENCODING) != null) return false;
+        String contentType = response.getContentType();
+        if (contentType == null) return false;
+        MediaType type = MediaType.parseMediaType(contentType);
+        return mimeTypes.stream().anyMatch(m -> m.isCompatibleWith(type));
+    }
+
+    private void startCompressing() throws IOException {
+        HttpServletResponse response = (HttpServletResponse) getResponse();
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, coding.token());
+        target = response.getOutputStream();
+        encoder = new BodyEncoder(coding, target, level);
+        encoder.write(pending, 0, pendingCount);
+        state = State.COMPRESSING;
+    }
+
+    private void passThrough() throws IOException {
+        target = getResponse().getOutputStream();
+        target.write(pending, 0, pendingCount);
+        state = State.PASSTHROUGH;
+    }
+
+    private final class Stream extends ServletOutputStream {
+
+        private final byte[] single = new byte[1];
+
+        @Override
+        public void write(int b) throws IOException {
+            single[0] = (byte) b;
+            CompressingResponseWrapper.this.write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            CompressingResponseWrapper.this.write(b, off, len);
+        }
+
+        /** Flushes are deferred while the body is still below the threshold. */
+        @Override
+        public void flush() throws IOException {
+            if (state == State.COMPRESSING) encoder.flush();
+            else if (state == State.PASSTHROUGH) target.flush();
+        }
+
+        @Override
+        public boolean isReady() {
+            return state != State.PASSTHROUGH || target.isReady();
+        }
+
+        /**
+         * Non-blocking responses are sent uncompressed: the held bytes are written and the
+         * listener goes to the container.
+         */
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            if (state == State.COMPRESSING) {
+                throw new IllegalStateException("Cannot switch to non-blocking writes after compression has started");
+            }
+            if (state == State.BUFFERING) {
+                try {
+                    passThrough();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            target.setWriteListener(listener);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.blackrock_hackathon.self_savings_planner.controller;
+
+import com.blackrock_hackathon.self_savings_planner.config.CompressionProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Negotiated, streaming gzip and zstd for request and response bodies.
+ *
+ * <p>Request bodies sent with {@code Content-Encoding: gzip} or {@code zstd} are decoded while the
+ * controller reads them. Other encodings get {@code 415} with the accepted ones in
+ * {@code Accept-Encoding}. Responses are compressed with the coding the client's
+ * {@code Accept-Encoding} ranks highest, ties going to the first in {@code encodings}, once the body
+ * reaches {@code minResponseSize}. Compressed blocks are written as they are produced instead of
+ * buffering the whole body. Async requests are finished on their last dispatch, and responses
+ * written through a {@code WriteListener} are sent uncompressed.
+ *
+ * <p>This overlaps Tomcat's {@code server.compression}, which is left off: that only covers
+ * gzip responses, so it cannot decode request bodies or report the ratio and CPU time below.
+ *
+ * <p>Metrics, tagged {@code direction=request|response} and {@code encoding=gzip|zstd}:
+ * {@code planner.compression.ratio} (uncompressed / compressed bytes) and
+ * {@code planner.compression.time} (time spent compressing or decompressing, without the I/O).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class CompressionFilter extends OncePerRequestFilter {
+
+    private final CompressionProperties properties;
+    private final MeterRegistry registry;
+    private final List<ContentCoding> encodings;
+    private final String acceptEncoding;
+    private final List<MediaType> mimeTypes;
+    private final ConcurrentMap<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public CompressionFilter(CompressionProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+        this.encodings = properties.encodings().stream().map(ContentCoding::of).distinct().toList();
+        this.acceptEncoding = encodings.stream().map(ContentCoding::token).collect(Collectors.joining(", "));
+        this.mimeTypes = properties.mimeTypes().stream().map(MediaType::parseMediaType).toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.enabled();
+    }
+
+    /** Async requests are completed on their last dispatch, so the filter runs on those too. */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        HttpServletRequest req = request;
+        HttpServletResponse res = response;
+        if (!isAsyncDispatch(request)) {
+            String contentEncoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+            if (contentEncoding != null && !contentEncoding.isBlank()
+                    && !"identity".equalsIgnoreCase(contentEncoding.trim())) {
+                ContentCoding coding = accepted(contentEncoding);
+                if (coding == null) {
+                    response.setHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+                    response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE,
+                            "Unsupported Content-Encoding: " + contentEncoding);
+                    return;
+                }
+                req = new DecompressingRequestWrapper(request, coding, properties.maxInflatedRequestSize().toBytes());
+            }
+            ContentCoding coding = "HEAD".equals(request.getMethod()) ? null
+                    : ContentCoding.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING), encodings);
+            if (coding != null) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                res = new CompressingResponseWrapper(response, coding, (int) properties.minResponseSize().toBytes(),
+                        properties.level(), mimeTypes);
+            }
+        }
+        DecompressingRequestWrapper inflating = WebUtils.getNativeRequest(req, DecompressingRequestWrapper.class);
+        CompressingResponseWrapper deflating = WebUtils.getNativeResponse(res, CompressingResponseWrapper.class);
+
+        boolean finished = false;
+        try {
+            chain.doFilter(req, res);
+            if (req.isAsyncStarted()) return;
+            if (deflating != null) deflating.finish();
+            finished = true;
+        } finally {
+            if (!req.isAsyncStarted()) {
+                if (deflating != null) {
+                    deflating.release();
+                    BodyEncoder encoder = deflating.encoder();
+                    if (finished && encoder != null) {
+                        record("response", encoder.coding(), encoder.rawBytes(), encoder.encodedBytes(),
+                                encoder.encodeNanos());
+                    }
+                }
+                if (inflating != null) {
+                    inflating.release();
+                    if (inflating.encodedBytes() > 0) {
+                        record("request", inflating.coding(), inflating.decodedBytes(), inflating.encodedBytes(),
+                                inflating.decodeNanos());
+                    }
+                }
+            }
+        }
+    }
+
+    /** The coding named by a request's {@code Content-Encoding}, or {@code null} if it is not one of ours. */
+    private ContentCoding accepted(String contentEncoding) {
+        return encodings.stream()
+                .filter(coding -> coding.token().equalsIgnoreCase(contentEncoding.trim()))
+                .findFirst().orElse(null);
+    }
+
+    private void record(String direction, ContentCoding coding, long rawBytes, long encodedBytes, long nanos) {
+        Meters m = meters.computeIfAbsent(direction + '/' + coding.token(), key -> register(direction, coding));
+        m.ratio().record(encodedBytes > 0 ? (double) rawBytes / encodedBytes : 0);
+        m.time().record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Meters register(String direction, ContentCoding coding) {
+        return new Meters(
+                DistributionSummary.builder("planner.compression.ratio")
+                        .description("Uncompressed over compressed body size")
+                        .tag("direction", direction)
+                        .tag("encoding", coding.token())
+                        .register(registry),
+                Timer.builder("planner.compression.time")
+                        .description("Time spent compressing or decompressing a body")
+                        .tag("direction", direction)
+                        .tag("encoding", coding.token())
+                        .register(registry));
+    }
+
+    private record Meters(DistributionSummary ratio, Timer time) {
+    }
+}
@@ -0,0 +1,148 @@
+package com.blackrock_hackathon.self_savings_planner.controller;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+import io.airlift.compress.zstd.ZstdOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The body codings the compression filter negotiates: gzip through the JDK streams and zstd
+ * (RFC 8878) through aircompressor, which is pure Java. Streams are used for blocking I/O; the
+ * push decoders serve non-blocking reads, where a stream would block on the container.
+ */
+enum ContentCoding {
+
+    GZIP("gzip") {
+        @Override
+        OutputStream encoder(OutputStream target, int level) throws IOException {
+            return new LeveledGzipOutputStream(target, level);
+        }
+
+        @Override
+        InputStream decoder(InputStream source) throws IOException {
+            return new GZIPInputStream(source, BUFFER);
+        }
+
+        @Override
+        PushDecoder pushDecoder() {
+            return new GzipDecoder();
+        }
+    },
+
+    /** aircompressor's stream has no level setting; it always compresses at zstd level 3. */
+    ZSTD("zstd") {
+        @Override
+        OutputStream encoder(OutputStream target, int level) throws IOException {
+            return new ZstdOutputStream(target);
+        }
+
+        @Override
+        InputStream decoder(InputStream source) {
+            return new ZstdInputStream(source);
+        }
+
+        @Override
+        PushDecoder pushDecoder() {
+            return new ZstdDecoder();
+        }
+    };
+
+    private static final int BUFFER = 16 * 1024;
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    /** The {@code Content-Encoding} token. */
+    String token() {
+        return token;
+    }
+
+    /**
+     * A compressing stream writing to {@code target}. {@code close()} finishes the body and
+     * releases the encoder, and also closes {@code target}.
+     */
+    abstract OutputStream encoder(OutputStream target, int level) throws IOException;
+
+    /** A decompressing stream reading from {@code source}; reading may block on it. */
+    abstract InputStream decoder(InputStream source) throws IOException;
+
+    abstract PushDecoder pushDecoder();
+
+    /** The coding named {@code token}, ignoring case; throws for anything else. */
+    static ContentCoding of(String token) {
+        for (ContentCoding coding : values()) {
+            if (coding.token.equalsIgnoreCase(token.trim())) return coding;
+        }
+        throw new IllegalArgumentException("Unsupported content coding: " + token);
+    }
+
+    /**
+     * The coding to answer {@code Accept-Encoding} with: of the {@code offered} ones, the one the
+     * client gives the highest {@code q}, with ties going to the earlier entry in {@code offered}.
+     * A coding not listed takes the {@code q} of {@code *}, if present. Returns {@code null} when
+     * none is acceptable.
+     */
+    static ContentCoding negotiate(String acceptEncoding, List<ContentCoding> offered) {
+        if (acceptEncoding == null) return null;
+        double[] q = new double[values().length];
+        boolean[] listed = new boolean[values().length];
+        double wildcard = 0;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String name = params[0].trim().toLowerCase(Locale.ROOT);
+            double weight = weight(params);
+            if (name.equals("*")) {
+                wildcard = weight;
+                continue;
+            }
+            for (ContentCoding coding : values()) {
+                if (coding.token.equals(name)) {
+                    q[coding.ordinal()] = weight;
+                    listed[coding.ordinal()] = true;
+                }
+            }
+        }
+        ContentCoding best = null;
+        double bestQ = 0;
+        for (ContentCoding coding : offered) {
+            double weight = listed[coding.ordinal()] ? q[coding.ordinal()] : wildcard;
+            if (weight > bestQ) {
+                best = coding;
+                bestQ = weight;
+            }
+        }
+        return best;
+    }
+
+    private static double weight(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String p = params[i].trim();
+            if (p.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(p.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1.0;
+    }
+
+    /** {@link GZIPOutputStream} with a deflate level and sync-flush, so {@code flush()} emits a decodable prefix. */
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+
+        LeveledGzipOutputStream(OutputStream target, int level) throws IOException {
+            super(target, BUFFER, true);
+            def.setLevel(level);
+        }
+    }
+}
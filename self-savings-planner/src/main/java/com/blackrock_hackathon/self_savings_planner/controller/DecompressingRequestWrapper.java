@@ -0,0 +1,314 @@
+package com.blackrock_hackathon.self_savings_planner.controller;
+
+import io.airlift.compress.MalformedInputException;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.springframework.http.HttpHeaders;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Request wrapper that decodes a gzip or zstd body while it is read, with blocking reads or
+ * through a {@link ReadListener}. The encoding and length headers are hidden, since they describe
+ * the compressed bytes. Reading more than {@code maxDecodedBytes} fails with an
+ * {@link IOException}.
+ */
+final class DecompressingRequestWrapper extends HttpServletRequestWrapper {
+
+    private static final List<String> HIDDEN = List.of(HttpHeaders.CONTENT_ENCODING, HttpHeaders.CONTENT_LENGTH);
+
+    private final ContentCoding coding;
+    private final long maxDecodedBytes;
+    private Stream stream;
+    private BufferedReader reader;
+
+    DecompressingRequestWrapper(HttpServletRequest request, ContentCoding coding, long maxDecodedBytes) {
+        super(request);
+        this.coding = coding;
+        this.maxDecodedBytes = maxDecodedBytes;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (reader != null) throw new IllegalStateException("getReader() has already been called");
+        if (stream == null) stream = new Stream(super.getInputStream());
+        return stream;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        if (reader == null) {
+            if (stream != null) throw new IllegalStateException("getInputStream() has already been called");
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            stream = new Stream(super.getInputStream());
+            reader = new BufferedReader(new InputStreamReader(stream, charset));
+        }
+        return reader;
+    }
+
+    @Override
+    public int getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return -1;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return hidden(name) ? null : super.getHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        return hidden(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                .filter(name -> !hidden(name))
+                .toList());
+    }
+
+    @Override
+    public int getIntHeader(String name) {
+        return hidden(name) ? -1 : super.getIntHeader(name);
+    }
+
+    ContentCoding coding() {
+        return coding;
+    }
+
+    long encodedBytes() {
+        return stream != null ? stream.source.bytes : 0;
+    }
+
+    long decodedBytes() {
+        return stream != null ? stream.decoded : 0;
+    }
+
+    /** Time spent decoding, excluding the time spent waiting for compressed bytes. */
+    long decodeNanos() {
+        return stream != null ? stream.decodeNanos() : 0;
+    }
+
+    /** Releases the decoder. */
+    void release() {
+        if (stream != null) stream.release();
+    }
+
+    private static boolean hidden(String name) {
+        return HIDDEN.stream().anyMatch(name::equalsIgnoreCase);
+    }
+
+    /**
+     * Blocking reads go through the coding's stream, reading from the container through
+     * {@link Source}. Once a {@link ReadListener} is set, the stream is not used: a push decoder
+     * decodes into a small buffer of its own, so that {@link #isReady()} can do the work and only
+     * report ready once {@code read} has bytes to return.
+     */
+    private final class Stream extends ServletInputStream {
+
+        private final Source source;
+        private final byte[] encodedBuf = new byte[16 * 1024];
+        private final byte[] out = new byte[16 * 1024];
+        private InputStream decoder;
+        private long nanos;
+        private PushDecoder push;
+        private int outPos;
+        private int outEnd;
+        private long decoded;
+        private boolean eof;
+        private IOException failure;
+
+        private Stream(ServletInputStream source) {
+            this.source = new Source(source);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (failure != null) throw failure;
+            if (len == 0) return 0;
+            if (push == null) return readBlocking(b, off, len);
+            if (!fill()) throw new IllegalStateException("read() called while isReady() is false");
+            if (outPos == outEnd) return -1;
+            int n = Math.min(len, outEnd - outPos);
+            System.arraycopy(out, outPos, b, off, n);
+            outPos += n;
+            return n;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return eof && outPos == outEnd;
+        }
+
+        @Override
+        public boolean isReady() {
+            if (push == null || failure != null) return true;
+            try {
+                return fill();
+            } catch (IOException e) {
+                failure = e;  // reported by the next read
+                return true;
+            }
+        }
+
+        /** Decoded bytes can outlast the compressed body, so the end gets one more {@code onDataAvailable}. */
+        @Override
+        public void setReadListener(ReadListener listener) {
+            if (decoder != null) {
+                throw new IllegalStateException("Cannot switch to non-blocking reads after reading has started");
+            }
+            push = coding.pushDecoder();
+            source.in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    listener.onDataAvailable();
+                }
+
+                @Override
+                public void onAllDataRead() throws IOException {
+                    if (!isFinished()) listener.onDataAvailable();
+                    listener.onAllDataRead();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    listener.onError(t);
+                }
+            });
+        }
+
+        @Override
+        public void close() throws IOException {
+            source.in.close();
+        }
+
+        private long decodeNanos() {
+            return push != null ? push.decodeNanos() : nanos - source.readNanos;
+        }
+
+        private void release() {
+            if (push != null) {
+                push.end();
+            } else if (decoder != null) {
+                try {
+                    decoder.close();  // ends the inflater; the source stays open
+                } catch (IOException ignored) {
+                    // nothing left to read from it
+                }
+            }
+        }
+
+        private int readBlocking(byte[] b, int off, int len) throws IOException {
+            if (eof) return -1;
+            long start = System.nanoTime();
+            int n;
+            try {
+                if (decoder == null) decoder = coding.decoder(source);
+                n = decoder.read(b, off, len);
+            } catch (MalformedInputException e) {
+                throw new IOException("Corrupt " + coding.token() + " body: " + e.getMessage(), e);
+            } finally {
+                nanos += System.nanoTime() - start;
+            }
+            if (n < 0) {
+                eof = true;
+            } else {
+                count(n);
+            }
+            return n;
+        }
+
+        /**
+         * Makes decoded bytes available in {@code out}, or reaches the end of the body. Gives up
+         * and returns false when that needs input the container does not have yet.
+         */
+        private boolean fill() throws IOException {
+            while (outPos == outEnd && !eof) {
+                int n = push.decode(out, 0, out.length);
+                if (n < 0) {
+                    eof = true;
+                } else if (n > 0) {
+                    outPos = 0;
+                    outEnd = n;
+                    count(n);
+                } else if (!source.in.isReady()) {
+                    if (!source.in.isFinished()) return false;
+                    push.endOfInput();
+                } else {
+                    int r = source.read(encodedBuf, 0, encodedBuf.length);
+                    if (r < 0) {
+                        push.endOfInput();
+                    } else {
+                        push.feed(encodedBuf, 0, r);
+                    }
+                }
+            }
+            return true;
+        }
+
+        private void count(int n) throws IOException {
+            decoded += n;
+            if (decoded > maxDecodedBytes) {
+                throw new IOException("Decompressed request body exceeds " + maxDecodedBytes + " bytes");
+            }
+        }
+    }
+
+    /** The container stream, counting the compressed bytes and timing the reads; {@code close()} stops here. */
+    private static final class Source extends InputStream {
+
+        private final ServletInputStream in;
+        private long bytes;
+        private long readNanos;
+
+        private Source(ServletInputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            int n;
+            try {
+                n = in.read(b, off, len);
+            } finally {
+                readNanos += System.nanoTime() - start;
+            }
+            if (n > 0) bytes += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.blackrock_hackathon.self_savings_planner.controller;
+
+import java.io.EOFException;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Push decoder for gzip (RFC 1952), for non-blocking reads; blocking reads use
+ * {@link java.util.zip.GZIPInputStream}. The JDK has no inflating stream that can be fed without
+ * blocking, so the member framing (header, CRC and size trailer) is parsed here around an
+ * {@link Inflater}. Concatenated members decode as one body, as with {@code GZIPInputStream}.
+ */
+final class GzipDecoder extends PushDecoder {
+
+    private enum State { HEADER, BODY, TRAILER }
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private static final int MAX_HEADER = 64 * 1024;
+
+    private final Inflater inflater = new Inflater(true);
+    private final CRC32 crc = new CRC32();
+    private State state = State.HEADER;
+    private boolean members;
+
+    @Override
+    int decode(byte[] b, int off, int len) throws ZipException, EOFException {
+        while (true) {
+            switch (state) {
+                case HEADER -> {
+                    if (inStart == inEnd && endOfInput && members) return -1;
+                    int n = headerLength();
+                    if (n < 0) return needInput();
+                    inStart += n;
+                    inflater.reset();
+                    crc.reset();
+                    state = State.BODY;
+                }
+                case BODY -> {
+                    int n;
+                    inflater.setInput(in, inStart, inEnd - inStart);
+                    long start = System.nanoTime();
+                    try {
+                        n = inflater.inflate(b, off, len);
+                    } catch (DataFormatException e) {
+                        throw new ZipException(e.getMessage());
+                    } finally {
+                        decodeNanos += System.nanoTime() - start;
+                    }
+                    inStart = inEnd - inflater.getRemaining();
+                    if (n > 0) {
+                        crc.update(b, off, n);
+                        return n;
+                    }
+                    if (inflater.finished()) {
+                        state = State.TRAILER;
+                    } else if (inflater.needsDictionary()) {
+                        throw new ZipException("Unsupported gzip dictionary");
+                    } else {
+                        return needInput();
+                    }
+                }
+                case TRAILER -> {
+                    if (inEnd - inStart < 8) return needInput();
+                    if (int32(inStart) != (int) crc.getValue()) throw new ZipException("Corrupt gzip trailer (CRC)");
+                    if (int32(inStart + 4) != (int) inflater.getBytesWritten()) {
+                        throw new ZipException("Corrupt gzip trailer (size)");
+                    }
+                    inStart += 8;
+                    members = true;
+                    state = State.HEADER;
+                }
+            }
+        }
+    }
+
+    /** Releases the native inflater. */
+    @Override
+    void end() {
+        inflater.end();
+    }
+
+    private int needInput() throws EOFException {
+        if (endOfInput) throw new EOFException("Unexpected end of gzip body");
+        return 0;
+    }
+
+    /** Length of the member header at {@code inStart}, or {@code -1} if it has not fully arrived. */
+    private int headerLength() throws ZipException {
+        int avail = inEnd - inStart;
+        if (avail >= 2 && (u8(0) != 0x1f || u8(1) != 0x8b)) throw new ZipException("Not in GZIP format");
+        if (avail >= 3 && u8(2) != Deflater.DEFLATED) throw new ZipException("Unsupported compression method");
+        if (avail > MAX_HEADER) throw new ZipException("gzip header exceeds " + MAX_HEADER + " bytes");
+        if (avail < 10) return -1;
+        int flags = u8(3);
+        int n = 10;
+        if ((flags & FEXTRA) != 0) {
+            if (avail < n + 2) return -1;
+            n += 2 + (u8(n) | u8(n + 1) << 8);
+        }
+        if ((flags & FNAME) != 0) n = afterZero(n);
+        if (n >= 0 && (flags & FCOMMENT) != 0) n = afterZero(n);
+        if (n >= 0 && (flags & FHCRC) != 0) n += 2;
+        return n >= 0 && n <= avail ? n : -1;
+    }
+
+    private int afterZero(int from) {
+        for (int i = from; inStart + i < inEnd; i++) {
+            if (in[inStart + i] == 0) return i + 1;
+        }
+        return -1;
+    }
+
+    private int u8(int i) {
+        return in[inStart + i] & 0xff;
+    }
+
+    private int int32(int at) {
+        return (in[at] & 0xff) | (in[at + 1] & 0xff) << 8 | (in[at + 2] & 0xff) << 16 | (in[at + 3] & 0xff) << 24;
+    }
+}
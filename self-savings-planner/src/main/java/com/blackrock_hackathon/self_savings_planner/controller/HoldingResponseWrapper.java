@@ -0,0 +1,130 @@
+package com.blackrock_hackathon.self_savings_planner.controller;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+
+/**
+ * Response wrapper that holds back up to {@code limit} bytes of the body, so headers can still be
+ * set after the application has written it. {@code beforeCommit} runs once, right before the first
+ * byte is passed on: when the body grows past the limit, when a {@link WriteListener} is set, or
+ * at {@link #finish()}. Flushes are deferred while the body is held.
+ */
+final class HoldingResponseWrapper extends HttpServletResponseWrapper {
+
+    private final int limit;
+    private final Runnable beforeCommit;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private boolean holding = true;
+    private ServletOutputStream target;
+    private ServletOutputStream stream;
+    private PrintWriter writer;
+
+    HoldingResponseWrapper(HttpServletResponse response, int limit, Runnable beforeCommit) {
+        super(response);
+        this.limit = limit;
+        this.beforeCommit = beforeCommit;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (writer != null) throw new IllegalStateException("getWriter() has already been called");
+        if (stream == null) stream = new Stream();
+        return stream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (stream != null) throw new IllegalStateException("getOutputStream() has already been called");
+            stream = new Stream();
+            writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) writer.flush();
+        if (!holding) super.flushBuffer();
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        if (holding) pending.reset();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        if (holding) pending.reset();
+    }
+
+    /** Runs {@code beforeCommit} if it has not run yet and writes the held body. */
+    void finish() throws IOException {
+        if (writer != null) writer.flush();
+        if (holding) release();
+    }
+
+    private void write(byte[] b, int off, int len) throws IOException {
+        if (holding && pending.size() + len <= limit) {
+            pending.write(b, off, len);
+            return;
+        }
+        if (holding) release();
+        target.write(b, off, len);
+    }
+
+    private void release() throws IOException {
+        holding = false;
+        beforeCommit.run();
+        target = getResponse().getOutputStream();
+        pending.writeTo(target);
+        pending.reset();
+    }
+
+    private final class Stream extends ServletOutputStream {
+
+        private final byte[] single = new byte[1];
+
+        @Override
+        public void write(int b) throws IOException {
+            single[0] = (byte) b;
+            HoldingResponseWrapper.this.write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            HoldingResponseWrapper.this.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!holding) target.flush();
+        }
+
+        @Override
+        public boolean isReady() {
+            return holding || target.isReady();
+        }
+
+        /** Non-blocking output is not held: the held bytes are released and the listener goes to the container. */
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            try {
+                if (holding) release();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            target.setWriteListener(listener);
+        }
+    }
+}
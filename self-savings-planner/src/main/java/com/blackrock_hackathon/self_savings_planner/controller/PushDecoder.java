@@ -0,0 +1,50 @@
+package com.blackrock_hackathon.self_savings_planner.controller;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Decoder that is fed compressed bytes as they arrive instead of pulling them from a stream, so
+ * it never blocks and can serve non-blocking reads. Blocking reads use the coding's stream
+ * instead. Subclasses decode from {@code in[inStart, inEnd)} and time only the decoding itself,
+ * so {@link #decodeNanos()} excludes waiting for the client.
+ */
+abstract class PushDecoder {
+
+    byte[] in = new byte[16 * 1024];
+    int inStart;
+    int inEnd;
+    boolean endOfInput;
+    long decodeNanos;
+
+    /** Adds compressed bytes; they are copied, so {@code b} can be reused. */
+    final void feed(byte[] b, int off, int len) {
+        if (in.length - inEnd < len) {
+            System.arraycopy(in, inStart, in, 0, inEnd - inStart);
+            inEnd -= inStart;
+            inStart = 0;
+            if (in.length - inEnd < len) in = Arrays.copyOf(in, Math.max(in.length * 2, inEnd + len));
+        }
+        System.arraycopy(b, off, in, inEnd, len);
+        inEnd += len;
+    }
+
+    /** Marks the end of the compressed input; a body cut short then fails instead of waiting. */
+    final void endOfInput() {
+        endOfInput = true;
+    }
+
+    /**
+     * Decodes into {@code b}: returns the number of bytes written, {@code 0} if more input is
+     * needed first, or {@code -1} at the end of the body.
+     */
+    abstract int decode(byte[] b, int off, int len) throws IOException;
+
+    /** Releases native resources, if any; safe to call more than once. */
+    void end() {
+    }
+
+    final long decodeNanos() {
+        return decodeNanos;
+    }
+}
@@ -1,35 +1,149 @@
 package com.blackrock_hackathon.self_savings_planner.controller;
 
+import com.blackrock_hackathon.self_savings_planner.dto.request.GoalSeekRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.ReturnsGridRequest;
 import com.blackrock_hackathon.self_savings_planner.dto.request.ReturnsRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.TransactionInput;
+import com.blackrock_hackathon.self_savings_planner.dto.response.GoalSeekResponse;
+import com.blackrock_hackathon.self_savings_planner.dto.response.ReturnsGridResponse;
 import com.blackrock_hackathon.self_savings_planner.dto.response.ReturnsResponse;
+import com.blackrock_hackathon.self_savings_planner.service.AdmissionService;
+import com.blackrock_hackathon.self_savings_planner.service.CsvTransactionReader;
+import com.blackrock_hackathon.self_savings_planner.service.PeriodSums;
+import com.blackrock_hackathon.self_savings_planner.service.RequestTrace;
 import com.blackrock_hackathon.self_savings_planner.service.ReturnsService;
+import com.blackrock_hackathon.self_savings_planner.service.RulePlan;
+import com.blackrock_hackathon.self_savings_planner.service.ShadowVerifier;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 @RestController
 @RequestMapping("/blackrock/challenge/v1/returns")
 @Tag(name = "Returns", description = "Calculate investment returns via NPS or Index fund")
 public class ReturnsController {
 
     private final ReturnsService returnsService;
+    private final AdmissionService admissionService;
+    private final ShadowVerifier shadowVerifier;
 
-    public ReturnsController(ReturnsService returnsService) {
+    public ReturnsController(ReturnsService returnsService, AdmissionService admissionService,
+                             ShadowVerifier shadowVerifier) {
         this.returnsService = returnsService;
+        this.admissionService = admissionService;
+        this.shadowVerifier = shadowVerifier;
     }
 
     @PostMapping("/nps")
     @Operation(summary = "NPS returns",
             description = "Compounds savings at 7.11% annually with inflation adjustment and tax benefit under Section 80CCD.")
     public ResponseEntity<ReturnsResponse> calculateNpsReturns(@RequestBody ReturnsRequest request) {
-        return ResponseEntity.ok(returnsService.calculateNpsReturns(request));
+        try (var permit = admissionService.admit("returns.nps", admissionService.cost(request))) {
+            ReturnsResponse response = returnsService.calculateNpsReturns(request);
+            shadowVerifier.verifyReturns("returns.nps", request, response);
+            return ResponseEntity.ok(response);
+        }
     }
 
     @PostMapping("/index")
     @Operation(summary = "Index fund returns",
             description = "Compounds savings at 14.49% (NIFTY 50) annually with inflation adjustment. No tax benefit.")
     public ResponseEntity<ReturnsResponse> calculateIndexReturns(@RequestBody ReturnsRequest request) {
-        return ResponseEntity.ok(returnsService.calculateIndexReturns(request));
+        try (var permit = admissionService.admit("returns.index", admissionService.cost(request))) {
+            ReturnsResponse response = returnsService.calculateIndexReturns(request);
+            shadowVerifier.verifyReturns("returns.index", request, response);
+            return ResponseEntity.ok(response);
+        }
+    }
+
+    @PostMapping("/grid")
+    @Operation(summary = "What-if returns grid",
+            description = "Profit per K period over ranges of age, inflation and annual return rate. Rules and "
+                    + "period sums are computed once and shared by every grid cell.")
+    public ResponseEntity<ReturnsGridResponse> calculateGrid(@RequestBody ReturnsGridRequest request) {
+        try (var permit = admissionService.admit("returns.grid", admissionService.cost(request))) {
+            return ResponseEntity.ok(returnsService.calculateGrid(request));
+        }
+    }
+
+    @PostMapping("/nps/goal-seek")
+    @Operation(summary = "NPS goal seek",
+            description = "Smallest extra per transaction (applied after Q, like a P period) that brings one K period's "
+                    + "real value at retirement plus tax benefit to the target.")
+    public ResponseEntity<GoalSeekResponse> goalSeekNps(@RequestBody GoalSeekRequest request) {
+        try (var permit = admissionService.admit("returns.nps.goal-seek", admissionService.cost(request.request()))) {
+            return ResponseEntity.ok(returnsService.goalSeekNps(request));
+        }
+    }
+
+    @PostMapping("/index/goal-seek")
+    @Operation(summary = "Index fund goal seek",
+            description = "Smallest extra per transaction (applied after Q, like a P period) that brings one K period's "
+                    + "real value at retirement to the target.")
+    public ResponseEntity<GoalSeekResponse> goalSeekIndex(@RequestBody GoalSeekRequest request) {
+        try (var permit = admissionService.admit("returns.index.goal-seek", admissionService.cost(request.request()))) {
+            return ResponseEntity.ok(returnsService.goalSeekIndex(request));
+        }
+    }
+
+    @PostMapping(value = "/nps", consumes = CsvTransactionReader.MEDIA_TYPE)
+    @Operation(summary = "NPS returns from CSV",
+            description = "text/csv body of date,amount rows plus optional q,fixed,start,end / p,extra,start,end / "
+                    + "k,start,end rule rows (or a planId); age, wage and inflation as query parameters.")
+    public ResponseEntity<ReturnsResponse> calculateNpsReturnsCsv(@RequestParam Integer age, @RequestParam Double wage,
+                                                                  @RequestParam Double inflation,
+                                                                  @RequestParam(required = false) String planId,
+                                                                  HttpServletRequest httpRequest) throws IOException {
+        try (var permit = admissionService.admitUpload("returns.nps", httpRequest.getContentLengthLong())) {
+            return ResponseEntity.ok(streamCsv("returns.nps", true, httpRequest,
+                    new ReturnsRequest(age, wage, inflation, null, null, null, null, planId)));
+        }
+    }
+
+    @PostMapping(value = "/index", consumes = CsvTransactionReader.MEDIA_TYPE)
+    @Operation(summary = "Index fund returns from CSV",
+            description = "text/csv body of date,amount rows plus optional q,fixed,start,end / p,extra,start,end / "
+                    + "k,start,end rule rows (or a planId); age, wage and inflation as query parameters.")
+    public ResponseEntity<ReturnsResponse> calculateIndexReturnsCsv(@RequestParam Integer age, @RequestParam Double wage,
+                                                                    @RequestParam Double inflation,
+                                                                    @RequestParam(required = false) String planId,
+                                                                    HttpServletRequest httpRequest) throws IOException {
+        try (var permit = admissionService.admitUpload("returns.index", httpRequest.getContentLengthLong())) {
+            return ResponseEntity.ok(streamCsv("returns.index", false, httpRequest,
+                    new ReturnsRequest(age, wage, inflation, null, null, null, null, planId)));
+        }
+    }
+
+    /**
+     * Reads a CSV body only after the upload has been admitted, compiling its rule rows (or
+     * {@code params.planId()}) first and adding each transaction row to the period sums as it is
+     * parsed. {@code params} supplies age, wage and inflation.
+     */
+    private ReturnsResponse streamCsv(String endpoint, boolean nps, HttpServletRequest httpRequest,
+                                      ReturnsRequest params) throws IOException {
+        RequestTrace trace = RequestTrace.current();
+        List<TransactionInput> sampled = shadowVerifier.sample() ? new ArrayList<>() : null;
+        PeriodSums sums = CsvTransactionReader.streamReturnsRequest(httpRequest.getInputStream(),
+                rules -> returnsService.newPeriodSums(new ReturnsRequest(params.age(), params.wage(),
+                        params.inflation(), rules.q(), rules.p(), rules.k(), List.of(), params.planId())),
+                (s, tx) -> {
+                    if (sampled != null) sampled.add(tx);
+                    s.add(tx, trace);
+                });
+        ReturnsResponse response = nps
+                ? returnsService.calculateNpsReturns(params, sums)
+                : returnsService.calculateIndexReturns(params, sums);
+        if (sampled != null) {
+            RulePlan plan = sums.plan();
+            shadowVerifier.compareReturns(endpoint, new ReturnsRequest(params.age(), params.wage(), params.inflation(),
+                    plan.q(), plan.p(), plan.k(), sampled), response);
+        }
+        return response;
     }
 }
@@ -0,0 +1,30 @@
+package com.blackrock_hackathon.self_savings_planner.controller;
+
+import com.blackrock_hackathon.self_savings_planner.dto.request.RulePlanRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.response.RulePlanResponse;
+import com.blackrock_hackathon.self_savings_planner.service.RulePlanService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/blackrock/challenge/v1/plans")
+@Tag(name = "Rule plans", description = "Upload Q/P/K rule sets once and reference them by id")
+public class RulePlanController {
+
+    private final RulePlanService rulePlanService;
+
+    public RulePlanController(RulePlanService rulePlanService) {
+        this.rulePlanService = rulePlanService;
+    }
+
+    @PostMapping
+    @Operation(summary = "Upload a rule plan",
+            description = "Compiles the Q/P/K lists into lookup tables and returns a plan id. Pass it as planId in "
+                    + "returns and filter requests instead of the inline lists. Identical rule sets get the same id.")
+    public ResponseEntity<RulePlanResponse> createPlan(@RequestBody RulePlanRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(rulePlanService.register(request));
+    }
+}
@@ -0,0 +1,71 @@
+package com.blackrock_hackathon.self_savings_planner.controller;
+
+import com.blackrock_hackathon.self_savings_planner.config.TraceProperties;
+import com.blackrock_hackathon.self_savings_planner.service.RequestTrace;
+import com.blackrock_hackathon.self_savings_planner.service.RequestTrace.Stage;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Adds a {@code Server-Timing} header to requests that carry {@link RequestTrace#HEADER}, when
+ * {@code planner.trace.enabled} is set and, if {@code planner.trace.secret} is configured, the
+ * header value matches it. Otherwise the header is ignored.
+ *
+ * <p>Traced responses are held back up to {@code planner.trace.max-buffered-size} so the header,
+ * which includes serialization time, can still be set after the body is written. A larger body is
+ * sent as soon as it passes that size, with the timing taken at that point. Requests without the
+ * header pass straight through unbuffered.
+ *
+ * <p>Ordered after {@link CompressionFilter}, so the held bytes are uncompressed and the
+ * {@code serialize} stage does not include compression time.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 30)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    static final String SERVER_TIMING = "Server-Timing";
+
+    private final TraceProperties properties;
+    private final byte[] secret;
+
+    public ServerTimingFilter(TraceProperties properties) {
+        this.properties = properties;
+        this.secret = properties.secret() == null || properties.secret().isEmpty()
+                ? null : properties.secret().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!properties.enabled()) return true;
+        String header = request.getHeader(RequestTrace.HEADER);
+        if (header == null) return true;
+        return secret != null && !MessageDigest.isEqual(secret, header.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTrace trace = RequestTrace.start();
+        HoldingResponseWrapper held = new HoldingResponseWrapper(response,
+                (int) Math.min(Integer.MAX_VALUE, properties.maxBufferedSize().toBytes()), () -> {
+                    trace.lap(Stage.SERIALIZE);
+                    response.setHeader(SERVER_TIMING, trace.serverTiming());
+                });
+        try {
+            chain.doFilter(request, held);
+        } finally {
+            RequestTrace.clear();
+            held.finish();
+        }
+    }
+}
@@ -5,13 +5,20 @@ import com.blackrock_hackathon.self_savings_planner.dto.request.TransactionInput
 import com.blackrock_hackathon.self_savings_planner.dto.request.ValidatorRequest;
 import com.blackrock_hackathon.self_savings_planner.dto.response.EnrichedTransaction;
 import com.blackrock_hackathon.self_savings_planner.dto.response.ValidationResult;
+import com.blackrock_hackathon.self_savings_planner.service.AdmissionService;
+import com.blackrock_hackathon.self_savings_planner.service.CsvTransactionReader;
+import com.blackrock_hackathon.self_savings_planner.service.ShadowVerifier;
 import com.blackrock_hackathon.self_savings_planner.service.TransactionService;
+import com.blackrock_hackathon.self_savings_planner.service.TransactionSource;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -20,29 +27,71 @@ import java.util.List;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final AdmissionService admissionService;
+    private final ShadowVerifier shadowVerifier;
 
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, AdmissionService admissionService,
+                                 ShadowVerifier shadowVerifier) {
         this.transactionService = transactionService;
+        this.admissionService = admissionService;
+        this.shadowVerifier = shadowVerifier;
     }
 
     @PostMapping("/parse")
     @Operation(summary = "Parse raw transactions",
             description = "Rounds each transaction amount up to the nearest 100 and returns the ceiling and remnant.")
     public ResponseEntity<List<EnrichedTransaction>> parseTransactions(@RequestBody List<TransactionInput> transactions) {
-        return ResponseEntity.status(HttpStatus.OK).body(transactionService.parseTransactions(transactions));
+        try (var permit = admissionService.admit("transactions.parse", admissionService.cost(transactions))) {
+            return ResponseEntity.status(HttpStatus.OK).body(transactionService.parseTransactions(transactions));
+        }
+    }
+
+    @PostMapping(value = "/parse", consumes = CsvTransactionReader.MEDIA_TYPE)
+    @Operation(summary = "Parse raw transactions from CSV",
+            description = "Same as the JSON variant, for a text/csv body of date,amount rows.")
+    public ResponseEntity<List<EnrichedTransaction>> parseTransactionsCsv(HttpServletRequest request) throws IOException {
+        try (var permit = admissionService.admitUpload("transactions.parse", request.getContentLengthLong())) {
+            TransactionSource<TransactionInput> rows = CsvTransactionReader.transactions(request.getInputStream());
+            return ResponseEntity.status(HttpStatus.OK).body(transactionService.parseTransactions(rows));
+        }
     }
 
     @PostMapping("/validator")
     @Operation(summary = "Validate transactions against wage",
             description = "Checks for duplicates, negative amounts, ceiling/remnant accuracy, and wage cap.")
     public ResponseEntity<ValidationResult> validateTransactionWithWage(@RequestBody ValidatorRequest validatorRequest) {
-        return ResponseEntity.ok(transactionService.validateTransactionWithWage(validatorRequest));
+        try (var permit = admissionService.admit("transactions.validator", admissionService.cost(validatorRequest))) {
+            ValidationResult result = transactionService.validateTransactionWithWage(validatorRequest);
+            shadowVerifier.verifyValidation("transactions.validator", validatorRequest, result);
+            return ResponseEntity.ok(result);
+        }
+    }
+
+    @PostMapping(value = "/validator", consumes = CsvTransactionReader.MEDIA_TYPE)
+    @Operation(summary = "Validate CSV transactions against wage",
+            description = "Same as the JSON variant, for a text/csv body of date,amount[,ceiling,remnant] rows. "
+                    + "Missing ceiling/remnant columns are computed.")
+    public ResponseEntity<ValidationResult> validateTransactionWithWageCsv(@RequestParam Double wage,
+                                                                           HttpServletRequest request) throws IOException {
+        try (var permit = admissionService.admitUpload("transactions.validator", request.getContentLengthLong())) {
+            List<EnrichedTransaction> sampled = shadowVerifier.sample() ? new ArrayList<>() : null;
+            TransactionSource<EnrichedTransaction> rows = CsvTransactionReader.enriched(request.getInputStream());
+            ValidationResult result = transactionService.validateTransactionWithWage(wage, rows.copyingTo(sampled));
+            if (sampled != null) {
+                shadowVerifier.compareValidation("transactions.validator", new ValidatorRequest(wage, sampled), result);
+            }
+            return ResponseEntity.ok(result);
+        }
     }
 
     @PostMapping("/filter")
     @Operation(summary = "Validate and filter with period rules",
             description = "Validates transactions and marks whether each falls within a K evaluation period.")
     public ResponseEntity<ValidationResult> filterTransaction(@RequestBody FilterRequest filterRequest) {
-        return ResponseEntity.ok(transactionService.validateTransactionWithWageAndPeriods(filterRequest));
+        try (var permit = admissionService.admit("transactions.filter", admissionService.cost(filterRequest))) {
+            ValidationResult result = transactionService.validateTransactionWithWageAndPeriods(filterRequest);
+            shadowVerifier.verifyFilter("transactions.filter", filterRequest, result);
+            return ResponseEntity.ok(result);
+        }
     }
 }
@@ -0,0 +1,43 @@
+package com.blackrock_hackathon.self_savings_planner.controller;
+
+import io.airlift.compress.MalformedInputException;
+import io.airlift.compress.zstd.ZstdIncrementalFrameDecompressor;
+import sun.misc.Unsafe;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * Push decoder for zstd, for non-blocking reads; blocking reads use aircompressor's
+ * {@code ZstdInputStream}. The frames are decoded by the same incremental decompressor that stream
+ * drives, fed from the buffered input instead of a blocking read, so both accept the same bodies.
+ */
+final class ZstdDecoder extends PushDecoder {
+
+    /** The decompressor addresses heap arrays the way {@code Unsafe} does. */
+    private static final long BASE = Unsafe.ARRAY_BYTE_BASE_OFFSET;
+
+    private final ZstdIncrementalFrameDecompressor decompressor = new ZstdIncrementalFrameDecompressor();
+
+    @Override
+    int decode(byte[] b, int off, int len) throws IOException {
+        while (true) {
+            if (inEnd - inStart < decompressor.getInputRequired()) {
+                if (!endOfInput) return 0;
+                if (decompressor.isAtStoppingPoint()) return -1;
+                throw new EOFException("Unexpected end of zstd body");
+            }
+            long start = System.nanoTime();
+            try {
+                decompressor.partialDecompress(in, BASE + inStart, BASE + inEnd, b, off, off + len);
+            } catch (MalformedInputException e) {
+                throw new IOException("Corrupt zstd body: " + e.getMessage(), e);
+            } finally {
+                decodeNanos += System.nanoTime() - start;
+            }
+            inStart += decompressor.getInputConsumed();
+            int n = decompressor.getOutputBufferUsed();
+            if (n > 0) return n;
+        }
+    }
+}
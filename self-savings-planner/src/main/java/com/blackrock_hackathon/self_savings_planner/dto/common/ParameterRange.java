@@ -0,0 +1,8 @@
+package com.blackrock_hackathon.self_savings_planner.dto.common;
+
+/**
+ * Inclusive {@code from..to} in increments of {@code step}. Without {@code to}, or with {@code to}
+ * equal to {@code from}, a single value; otherwise {@code step} is required.
+ */
+public record ParameterRange(Double from, Double to, Double step) {
+}
@@ -6,6 +6,11 @@ import com.blackrock_hackathon.self_savings_planner.dto.period.Q;
 
 import java.util.List;
 
+/** {@code planId} references an uploaded rule plan and replaces the inline q/p/k lists. */
 public record FilterRequest(List<Q> q, List<P> p, List<K> k, Double wage,
-                             List<TransactionInput> transactions) {
+                             List<TransactionInput> transactions, String planId) {
+
+    public FilterRequest(List<Q> q, List<P> p, List<K> k, Double wage, List<TransactionInput> transactions) {
+        this(q, p, k, wage, transactions, null);
+    }
 }
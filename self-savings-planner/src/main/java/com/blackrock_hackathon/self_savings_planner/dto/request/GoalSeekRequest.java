@@ -0,0 +1,8 @@
+package com.blackrock_hackathon.self_savings_planner.dto.request;
+
+/**
+ * Asks for the extra per transaction that brings K period {@code period} (index into the request's
+ * K list, default 0) to a {@code target} corpus at retirement.
+ */
+public record GoalSeekRequest(ReturnsRequest request, Double target, Integer period) {
+}
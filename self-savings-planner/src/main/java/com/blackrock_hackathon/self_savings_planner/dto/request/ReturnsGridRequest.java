@@ -0,0 +1,12 @@
+package com.blackrock_hackathon.self_savings_planner.dto.request;
+
+import com.blackrock_hackathon.self_savings_planner.dto.common.ParameterRange;
+
+/**
+ * One returns request evaluated over a grid of ages, inflation rates and annual return rates (both
+ * in percent). A missing range uses the request's own value, or the fund's rate for {@code rates}.
+ * {@code fund} is {@code nps} (default, with tax benefit) or {@code index}.
+ */
+public record ReturnsGridRequest(ReturnsRequest request, ParameterRange ages, ParameterRange inflation,
+                                 ParameterRange rates, String fund) {
+}
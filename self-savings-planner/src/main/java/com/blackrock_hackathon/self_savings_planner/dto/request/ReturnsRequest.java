@@ -6,6 +6,12 @@ import com.blackrock_hackathon.self_savings_planner.dto.period.Q;
 
 import java.util.List;
 
+/** {@code planId} references an uploaded rule plan and replaces the inline q/p/k lists. */
 public record ReturnsRequest(Integer age, Double wage, Double inflation, List<Q> q, List<P> p, List<K> k,
-                             List<TransactionInput> transactions) {
+                             List<TransactionInput> transactions, String planId) {
+
+    public ReturnsRequest(Integer age, Double wage, Double inflation, List<Q> q, List<P> p, List<K> k,
+                          List<TransactionInput> transactions) {
+        this(age, wage, inflation, q, p, k, transactions, null);
+    }
 }
@@ -0,0 +1,22 @@
+package com.blackrock_hackathon.self_savings_planner.dto.response;
+
+import com.blackrock_hackathon.self_savings_planner.dto.common.TemporalData;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * The smallest {@code extra} per transaction (in cents, added after Q like a P period) that reaches
+ * {@code target}, and the K period's figures with that extra applied. {@code corpus} is the real
+ * value at retirement plus the tax benefit, i.e. {@code amount + profit + taxBenefit}.
+ */
+public record GoalSeekResponse(
+        @JsonUnwrapped TemporalData temporalData,
+        Double target,
+        Double extra,
+        Long transactions,
+        Double baseAmount,
+        Double amount,
+        Double profit,
+        Double taxBenefit,
+        Double corpus
+) {
+}
@@ -0,0 +1,28 @@
+package com.blackrock_hackathon.self_savings_planner.dto.response;
+
+import com.blackrock_hackathon.self_savings_planner.dto.common.TemporalData;
+
+import java.util.List;
+
+/**
+ * Profit for every grid cell and K period, flattened row-major over
+ * {@code [ages][inflation][rates][periods]}: the profit of age {@code a}, inflation {@code i},
+ * rate {@code r} and period {@code k} is at {@code ((a * inflation + i) * rates + r) * periods + k}.
+ * {@code amounts} and {@code taxBenefits} do not depend on the grid and are given once per period.
+ *
+ * <p>{@code profit} is a primitive array on purpose: a grid holds up to two million values, and a
+ * {@code List<Double>} would box every one of them. It serializes as a plain JSON array all the
+ * same. Being an array, it is compared by identity in {@link #equals(Object)}.
+ */
+public record ReturnsGridResponse(
+        List<Integer> ages,
+        List<Double> inflation,
+        List<Double> rates,
+        List<TemporalData> periods,
+        List<Double> amounts,
+        List<Double> taxBenefits,
+        Double totalTransactionAmount,
+        Double totalCeiling,
+        double[] profit
+) {
+}
@@ -0,0 +1,4 @@
+package com.blackrock_hackathon.self_savings_planner.dto.response;
+
+public record RulePlanResponse(String planId, Integer q, Integer p, Integer k) {
+}
@@ -0,0 +1,18 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+import java.time.Duration;
+
+/** Thrown when a request cannot get its share of the concurrency budget in time. */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(String endpoint, long cost, Duration retryAfter) {
+        super("Server is busy, request to " + endpoint + " (cost " + cost + ") was not admitted");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
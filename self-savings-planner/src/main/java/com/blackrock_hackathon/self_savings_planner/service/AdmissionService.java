@@ -0,0 +1,197 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+import com.blackrock_hackathon.self_savings_planner.config.AdmissionProperties;
+import com.blackrock_hackathon.self_savings_planner.dto.common.ParameterRange;
+import com.blackrock_hackathon.self_savings_planner.dto.request.FilterRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.ReturnsGridRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.ReturnsRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.ValidatorRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost-based admission control for the transaction and returns endpoints.
+ *
+ * <p>Each request is weighted by the work its parsed lists imply and must acquire that many
+ * permits from a shared budget. A transaction costs one unit plus one per level of binary search
+ * into the compiled Q, P and K tables it is looked up in; inline rules add their compile cost,
+ * while a cached plan referenced by {@code planId} is costed by its stored sizes. A request that
+ * cannot get its permits within {@code maxWait} is shed with an {@link AdmissionRejectedException}.
+ * Requests costing more than the whole budget are clamped to it, so they run alone instead of
+ * never running at all.
+ *
+ * <p>The semaphore is fair: a waiting request is served before any request that arrives after
+ * it, so a steady stream of cheap requests cannot starve an expensive one until its
+ * {@code maxWait} runs out. CSV uploads are admitted on their {@code Content-Length} before the
+ * body is read, so the budget also bounds parse memory.
+ */
+@Service
+public class AdmissionService {
+
+    static final int CSV_ROW_BYTES = 22;
+
+    private final AdmissionProperties properties;
+    private final Semaphore budget;
+    private final MeterRegistry registry;
+    private final RulePlanService rulePlanService;
+    private final ConcurrentMap<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public AdmissionService(AdmissionProperties properties, MeterRegistry registry, RulePlanService rulePlanService) {
+        this.properties = properties;
+        this.rulePlanService = rulePlanService;
+        this.budget = new Semaphore(properties.maxConcurrentCost(), true);
+        this.registry = registry;
+        Gauge.builder("planner.admission.inflight.cost", budget,
+                        b -> properties.maxConcurrentCost() - b.availablePermits())
+                .description("Cost units currently held by admitted requests")
+                .register(registry);
+    }
+
+    /**
+     * Acquires {@code cost} units for {@code endpoint}; the returned permit must be closed when
+     * the request finishes.
+     */
+    public Permit admit(String endpoint, long cost) {
+        if (!properties.enabled()) return Permit.NONE;
+
+        int permits = (int) Math.min(Math.max(cost, 1), properties.maxConcurrentCost());
+        boolean admitted;
+        try {
+            admitted = budget.tryAcquire(permits, properties.maxWait().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+
+        Meters m = meters.computeIfAbsent(endpoint, this::register);
+        (admitted ? m.admitted() : m.rejected()).increment();
+        (admitted ? m.admittedCost() : m.rejectedCost()).record(cost);
+
+        if (!admitted) throw new AdmissionRejectedException(endpoint, cost, properties.retryAfter());
+        return new Permit(budget, permits);
+    }
+
+    private Meters register(String endpoint) {
+        return new Meters(counter(endpoint, "admitted"), counter(endpoint, "rejected"),
+                summary(endpoint, "admitted"), summary(endpoint, "rejected"));
+    }
+
+    private Counter counter(String endpoint, String outcome) {
+        return Counter.builder("planner.admission.requests")
+                .tag("endpoint", endpoint).tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private DistributionSummary summary(String endpoint, String outcome) {
+        return DistributionSummary.builder("planner.admission.cost")
+                .tag("endpoint", endpoint).tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Admits a {@code text/csv} upload before its body is read, at one unit per
+     * {@value #CSV_ROW_BYTES} bytes (the shortest possible row). An unknown length, as with chunked
+     * or compressed uploads, is charged the whole budget.
+     */
+    public Permit admitUpload(String endpoint, long contentLength) {
+        return admit(endpoint, contentLength < 0 ? properties.maxConcurrentCost() : 1L + contentLength / CSV_ROW_BYTES);
+    }
+
+    /** One unit per transaction. */
+    public long cost(Collection<?> transactions) {
+        return 1L + size(transactions);
+    }
+
+    public long cost(ValidatorRequest request) {
+        return request == null ? 1 : cost(request.transactions());
+    }
+
+    /** Each transaction is one lookup in the merged K interval index. */
+    public long cost(FilterRequest request) {
+        if (request == null) return 1;
+        RulePlan plan = rulePlanService.peek(request.planId());
+        long k = plan != null ? plan.kIndex().size() : size(request.k());
+        return 1L + (plan != null ? 0 : compileCost(k)) + size(request.transactions()) * (1L + depth(k));
+    }
+
+    /** Each transaction is one lookup in each of the Q, P and K segment tables. */
+    public long cost(ReturnsRequest request) {
+        if (request == null) return 1;
+        RulePlan plan = rulePlanService.peek(request.planId());
+        long q = plan != null ? plan.q().size() : size(request.q());
+        long p = plan != null ? plan.p().size() : size(request.p());
+        long k = plan != null ? plan.k().size() : size(request.k());
+        return 1L + (plan != null ? 0 : compileCost(q + p + k))
+                + size(request.transactions()) * (1L + depth(q) + depth(p) + depth(k));
+    }
+
+    /** One returns request, plus one unit per grid cell and K period. */
+    public long cost(ReturnsGridRequest request) {
+        if (request == null) return 1;
+        ReturnsRequest returns = request.request();
+        RulePlan plan = returns == null ? null : rulePlanService.peek(returns.planId());
+        long k = plan != null ? plan.k().size() : returns == null ? 0 : size(returns.k());
+        long cells = points(request.ages()) * points(request.inflation()) * points(request.rates());
+        return cost(returns) + cells * Math.max(1, k);
+    }
+
+    /** Sorting {@code rules} periods into lookup tables. */
+    private static long compileCost(long rules) {
+        return rules * (1L + depth(rules));
+    }
+
+    /** Levels of a binary search over {@code n} entries. */
+    private static long depth(long n) {
+        return 64 - Long.numberOfLeadingZeros(n);
+    }
+
+    /** Approximate value count of a range; malformed ranges count as one and are rejected later. */
+    private static long points(ParameterRange range) {
+        if (range == null || range.from() == null || range.to() == null || range.step() == null
+                || !(range.step() > 0) || range.to() < range.from()) {
+            return 1;
+        }
+        return Math.min(1_000, (long) ((range.to() - range.from()) / range.step()) + 1);
+    }
+
+    private static long size(Collection<?> c) {
+        return c == null ? 0 : c.size();
+    }
+
+    /** An endpoint's meters, registered on its first request. */
+    private record Meters(Counter admitted, Counter rejected,
+                          DistributionSummary admittedCost, DistributionSummary rejectedCost) {
+    }
+
+    /** Releases the acquired budget on close. */
+    public static final class Permit implements AutoCloseable {
+
+        static final Permit NONE = new Permit(null, 0);
+
+        private final Semaphore budget;
+        private final int permits;
+        private boolean released;
+
+        private Permit(Semaphore budget, int permits) {
+            this.budget = budget;
+            this.permits = permits;
+        }
+
+        @Override
+        public void close() {
+            if (budget == null || released) return;
+            released = true;
+            budget.release(permits);
+        }
+    }
+}
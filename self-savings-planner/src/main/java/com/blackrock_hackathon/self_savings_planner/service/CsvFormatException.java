@@ -0,0 +1,23 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+/** Malformed {@code text/csv} upload; carries the 1-based line number of the offending row. */
+public class CsvFormatException extends IllegalArgumentException {
+
+    private final int line;
+    private final String detail;
+
+    public CsvFormatException(int line, String message) {
+        super("CSV line " + line + ": " + message);
+        this.line = line;
+        this.detail = message;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    /** The same error {@code lines} further down, for a slice of a file that was parsed on its own. */
+    public CsvFormatException shiftedBy(int lines) {
+        return new CsvFormatException(line + lines, detail);
+    }
+}
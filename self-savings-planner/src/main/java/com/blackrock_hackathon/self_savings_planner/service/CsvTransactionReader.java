@@ -0,0 +1,514 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+import com.blackrock_hackathon.self_savings_planner.dto.common.TemporalData;
+import com.blackrock_hackathon.self_savings_planner.dto.period.K;
+import com.blackrock_hackathon.self_savings_planner.dto.period.P;
+import com.blackrock_hackathon.self_savings_planner.dto.period.Q;
+import com.blackrock_hackathon.self_savings_planner.dto.request.ReturnsRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.TransactionInput;
+import com.blackrock_hackathon.self_savings_planner.dto.response.EnrichedTransaction;
+import com.blackrock_hackathon.self_savings_planner.service.RequestTrace.Stage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Scans {@code text/csv} transaction uploads straight from the request bytes.
+ *
+ * <p>Dates ({@code yyyy-MM-dd HH:mm:ss}) and amounts are decoded digit by digit without creating
+ * per-field {@code String}s; only amounts in exponent notation or with more than 18 significant
+ * digits fall back to {@link Double#parseDouble}. Amounts must match
+ * {@code [+-]digits[.digits][(e|E)[+-]digits]} and be finite, as in JSON. An empty date or amount
+ * reads as {@code null}, the same as a JSON {@code null}. Fields may be double-quoted, lines may
+ * end in {@code \n} or {@code \r\n}, blank lines are skipped, and a leading header line
+ * (e.g. {@code date,amount}) is ignored.
+ *
+ * <p>Row formats:
+ * <ul>
+ *   <li>transaction: {@code date,amount}</li>
+ *   <li>enriched transaction (validator only): {@code date,amount,ceiling,remnant}</li>
+ *   <li>rule rows (returns only): {@code q,fixed,start,end}, {@code p,extra,start,end}, {@code k,start,end}</li>
+ * </ul>
+ *
+ * <p>Uploads are read from the request stream in {@value #CHUNK}-byte chunks. Each chunk's complete
+ * lines are parsed and handed on row by row, and the partial last line is carried over to the next
+ * chunk, so the body is never held whole. A streamed returns upload must list its rule rows before
+ * its first transaction row, because the rules are compiled before any transaction is summed.
+ */
+public final class CsvTransactionReader {
+
+    public static final String MEDIA_TYPE = "text/csv";
+
+    /** Bytes read from a stream at a time; a longer line grows the buffer up to {@link #MAX_LINE}. */
+    static final int CHUNK = 64 * 1024;
+    static final int MAX_LINE = 1024 * 1024;
+
+    private static final int DATE_LENGTH = 19;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final ByteBuffer buf;
+    private final int end;
+    private final boolean headerAllowed;
+    private int pos;
+    private int line = 1;
+
+    private CsvTransactionReader(ByteBuffer buf, int from, int to, boolean headerAllowed) {
+        this.buf = buf;
+        this.pos = from;
+        this.end = to;
+        this.headerAllowed = headerAllowed;
+    }
+
+    private CsvTransactionReader(ByteBuffer buf, int from, int to) {
+        this(buf, from, to, true);
+    }
+
+    /**
+     * Reads {@code date,amount} rows from {@code buf[from, to)}. Pass {@code headerAllowed = false}
+     * for a slice that starts mid-file, where a text line is an error rather than a header.
+     */
+    public static List<TransactionInput> readTransactions(ByteBuffer buf, int from, int to, boolean headerAllowed) {
+        CsvTransactionReader reader = new CsvTransactionReader(buf, from, to, headerAllowed);
+        List<TransactionInput> out = new ArrayList<>(Math.max(16, (to - from) / 28));
+        while (reader.nextRow(false)) {
+            out.add(reader.transactionRow());
+        }
+        return out;
+    }
+
+    public static List<TransactionInput> readTransactions(ByteBuffer buf) {
+        return readTransactions(buf, buf.position(), buf.limit(), true);
+    }
+
+    /** Reads {@code date,amount[,ceiling,remnant]} rows; missing ceiling/remnant are computed. */
+    public static List<EnrichedTransaction> readEnriched(ByteBuffer buf) {
+        CsvTransactionReader reader = new CsvTransactionReader(buf, buf.position(), buf.limit());
+        List<EnrichedTransaction> out = new ArrayList<>(Math.max(16, buf.remaining() / 36));
+        while (reader.nextRow(false)) {
+            out.add(reader.enrichedRow());
+        }
+        return out;
+    }
+
+    /** Reads transaction and Q/P/K rule rows into a returns request. */
+    public static ReturnsRequest readReturnsRequest(ByteBuffer buf, Integer age, Double wage, Double inflation) {
+        CsvTransactionReader reader = new CsvTransactionReader(buf, buf.position(), buf.limit());
+        List<TransactionInput> transactions = new ArrayList<>(Math.max(16, buf.remaining() / 28));
+        List<Q> q = new ArrayList<>();
+        List<P> p = new ArrayList<>();
+        List<K> k = new ArrayList<>();
+        while (reader.nextRow(true)) {
+            if (reader.atRuleRow()) reader.ruleRow(q, p, k);
+            else transactions.add(reader.transactionRow());
+        }
+        return new ReturnsRequest(age, wage, inflation, q, p, k, transactions);
+    }
+
+    // ---- streams ----
+
+    /** The {@code date,amount} rows of {@code in}, parsed a chunk at a time while the source is iterated. */
+    public static TransactionSource<TransactionInput> transactions(InputStream in) {
+        return transactions(in, CHUNK);
+    }
+
+    static TransactionSource<TransactionInput> transactions(InputStream in, int chunk) {
+        return sink -> stream(in, chunk, (reader, trace) -> {
+            while (reader.nextRow(false)) {
+                TransactionInput tx = reader.transactionRow();
+                if (trace != null) trace.lap(Stage.DESERIALIZE);
+                sink.accept(tx);
+            }
+        });
+    }
+
+    /** As {@link #transactions(InputStream)}, for {@code date,amount[,ceiling,remnant]} rows. */
+    public static TransactionSource<EnrichedTransaction> enriched(InputStream in) {
+        return enriched(in, CHUNK);
+    }
+
+    static TransactionSource<EnrichedTransaction> enriched(InputStream in, int chunk) {
+        return sink -> stream(in, chunk, (reader, trace) -> {
+            while (reader.nextRow(false)) {
+                EnrichedTransaction tx = reader.enrichedRow();
+                if (trace != null) trace.lap(Stage.DESERIALIZE);
+                sink.accept(tx);
+            }
+        });
+    }
+
+    /**
+     * Streams a returns upload. The rule rows before the first transaction row are passed to
+     * {@code onRules} in a request with only Q, P and K set, once that row is reached or at the end
+     * of input. Every transaction row then goes to {@code onTransaction} together with what
+     * {@code onRules} returned, which is also the result. A rule row after a transaction row is a
+     * {@link CsvFormatException}.
+     */
+    public static <T> T streamReturnsRequest(InputStream in, Function<ReturnsRequest, T> onRules,
+                                             BiConsumer<? super T, TransactionInput> onTransaction) throws IOException {
+        return streamReturnsRequest(in, CHUNK, onRules, onTransaction);
+    }
+
+    static <T> T streamReturnsRequest(InputStream in, int chunk, Function<ReturnsRequest, T> onRules,
+                                      BiConsumer<? super T, TransactionInput> onTransaction) throws IOException {
+        ReturnsRows<T> rows = new ReturnsRows<>(onRules);
+        stream(in, chunk, (reader, trace) -> {
+            while (reader.nextRow(true)) {
+                if (reader.atRuleRow()) {
+                    if (rows.target != null) {
+                        throw reader.error("Q/P/K rule rows must come before the transaction rows");
+                    }
+                    reader.ruleRow(rows.q, rows.p, rows.k);
+                    if (trace != null) trace.lap(Stage.DESERIALIZE);
+                    continue;
+                }
+                TransactionInput tx = reader.transactionRow();
+                if (trace != null) trace.lap(Stage.DESERIALIZE);
+                onTransaction.accept(rows.target(), tx);
+            }
+        });
+        return rows.target();
+    }
+
+    /** Parses every row of one chunk; {@code trace} is the request's trace or {@code null}. */
+    @FunctionalInterface
+    private interface ChunkParser {
+        void parse(CsvTransactionReader reader, RequestTrace trace);
+    }
+
+    /**
+     * Reads {@code in} {@code chunk} bytes at a time and parses the complete lines of each chunk,
+     * carrying a partial last line over to the next one. A line that does not fit doubles the
+     * buffer, up to {@link #MAX_LINE}. Errors carry their line number in the whole stream.
+     */
+    private static void stream(InputStream in, int chunk, ChunkParser parser) throws IOException {
+        RequestTrace trace = RequestTrace.current();
+        byte[] bytes = new byte[chunk];
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        int filled = 0;
+        int linesBefore = 0;
+        while (true) {
+            filled += in.readNBytes(bytes, filled, bytes.length - filled);
+            boolean last = filled < bytes.length;
+            int cut = last ? filled : lastLineEnd(bytes, filled);
+            if (cut == 0) {
+                if (bytes.length >= MAX_LINE) {
+                    throw new CsvFormatException(linesBefore + 1, "Line exceeds " + MAX_LINE + " bytes");
+                }
+                bytes = Arrays.copyOf(bytes, Math.min(MAX_LINE, 2 * bytes.length));
+                buf = ByteBuffer.wrap(bytes);
+                continue;
+            }
+            CsvTransactionReader reader = new CsvTransactionReader(buf, 0, cut, linesBefore == 0);
+            try {
+                parser.parse(reader, trace);
+            } catch (CsvFormatException e) {
+                throw e.shiftedBy(linesBefore);
+            }
+            if (last) return;
+            // The parser reads until nextRow is false, which has then counted every '\n' of the chunk.
+            linesBefore += reader.line - 1;
+            System.arraycopy(bytes, cut, bytes, 0, filled - cut);
+            filled -= cut;
+        }
+    }
+
+    /** Index after the last {@code '\n'} in {@code bytes[0, len)}, or {@code 0} if there is none. */
+    private static int lastLineEnd(byte[] bytes, int len) {
+        for (int i = len - 1; i >= 0; i--) {
+            if (bytes[i] == '\n') return i + 1;
+        }
+        return 0;
+    }
+
+    /** Rule rows of a streamed returns upload, until its first transaction row closes them. */
+    private static final class ReturnsRows<T> {
+
+        private final Function<ReturnsRequest, T> onRules;
+        private final List<Q> q = new ArrayList<>();
+        private final List<P> p = new ArrayList<>();
+        private final List<K> k = new ArrayList<>();
+        private T target;
+
+        ReturnsRows(Function<ReturnsRequest, T> onRules) {
+            this.onRules = onRules;
+        }
+
+        T target() {
+            if (target == null) target = onRules.apply(new ReturnsRequest(null, null, null, q, p, k, List.of()));
+            return target;
+        }
+    }
+
+    // ---- rows ----
+
+    /**
+     * Positions at the start of the next non-blank row; false at end of input. A first line that
+     * starts with a letter other than a rule tag is treated as a header and skipped.
+     */
+    private boolean nextRow(boolean allowRules) {
+        while (pos < end) {
+            byte b = buf.get(pos);
+            if (b == '\n') {
+                pos++;
+                line++;
+            } else if (b == '\r') {
+                pos++;
+            } else if (isLetter(b)) {
+                boolean rule = (b == 'q' || b == 'p' || b == 'k') && pos + 1 < end && buf.get(pos + 1) == ',';
+                if (rule && allowRules) return true;
+                if (rule) throw error("Q/P/K rule rows are only accepted by the returns endpoints");
+                if (!headerAllowed || line != 1) throw error("Unexpected text where a date was expected");
+                skipLine();
+            } else if (b == '"' && headerAllowed && line == 1 && pos + 1 < end && isLetter(buf.get(pos + 1))) {
+                skipLine();
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private TransactionInput transactionRow() {
+        LocalDateTime date = date();
+        comma();
+        Double amount = number();
+        endRow();
+        return new TransactionInput(date, amount);
+    }
+
+    private EnrichedTransaction enrichedRow() {
+        LocalDateTime date = date();
+        comma();
+        Double amount = number();
+        if (atRowEnd()) {
+            endRow();
+            if (amount == null) return new EnrichedTransaction(date, null, null, null);
+            double ceiling = Math.ceil(amount / 100.0) * 100.0;
+            return new EnrichedTransaction(date, amount, ceiling, ceiling - amount);
+        }
+        comma();
+        Double ceiling = number();
+        comma();
+        Double remnant = number();
+        endRow();
+        return new EnrichedTransaction(date, amount, ceiling, remnant);
+    }
+
+    /** True at a row that {@link #nextRow} accepted as a Q, P or K rule row. */
+    private boolean atRuleRow() {
+        return isLetter(peek());
+    }
+
+    private void ruleRow(List<Q> q, List<P> p, List<K> k) {
+        switch (peek()) {
+            case 'q' -> {
+                skipRuleTag();
+                Double fixed = number();
+                q.add(new Q(fixed, commaThenPeriod()));
+            }
+            case 'p' -> {
+                skipRuleTag();
+                Double extra = number();
+                p.add(new P(extra, commaThenPeriod()));
+            }
+            case 'k' -> {
+                skipRuleTag();
+                LocalDateTime start = date();
+                comma();
+                k.add(new K(new TemporalData(start, date())));
+            }
+        }
+        endRow();
+    }
+
+    private TemporalData commaThenPeriod() {
+        comma();
+        LocalDateTime start = date();
+        comma();
+        return new TemporalData(start, date());
+    }
+
+    // ---- fields ----
+
+    /** Parses a date; an empty field yields {@code null}. */
+    private LocalDateTime date() {
+        boolean quoted = openQuote();
+        int p = pos;
+        if (quoted ? p < end && buf.get(p) == '"' : atFieldEnd()) {
+            closeQuote(quoted);
+            return null;
+        }
+        if (p + DATE_LENGTH > end
+                || buf.get(p + 4) != '-' || buf.get(p + 7) != '-'
+                || (buf.get(p + 10) != ' ' && buf.get(p + 10) != 'T')
+                || buf.get(p + 13) != ':' || buf.get(p + 16) != ':') {
+            throw error("Expected date as yyyy-MM-dd HH:mm:ss");
+        }
+        int year = digits(p, 4), month = digits(p + 5, 2), day = digits(p + 8, 2);
+        int hour = digits(p + 11, 2), minute = digits(p + 14, 2), second = digits(p + 17, 2);
+        pos = p + DATE_LENGTH;
+        closeQuote(quoted);
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second);
+        } catch (DateTimeException e) {
+            throw error("Invalid date: " + e.getMessage());
+        }
+    }
+
+    /** Parses a decimal number; an empty field yields {@code null}. */
+    private Double number() {
+        boolean quoted = openQuote();
+        int start = pos;
+        boolean negative = false;
+        if (pos < end && (buf.get(pos) == '-' || buf.get(pos) == '+')) {
+            negative = buf.get(pos) == '-';
+            pos++;
+        }
+
+        long mantissa = 0;
+        int digits = 0, scale = 0, intDigits = 0, fracDigits = 0;
+        boolean dot = false, exact = true;
+        while (pos < end) {
+            byte b = buf.get(pos);
+            if (b >= '0' && b <= '9') {
+                if (dot) fracDigits++;
+                else intDigits++;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (mantissa != 0) digits++;
+                    if (dot) scale++;
+                } else {
+                    exact = false;
+                }
+                pos++;
+            } else if (b == '.' && !dot) {
+                dot = true;
+                pos++;
+            } else {
+                break;
+            }
+        }
+
+        if (pos == start && atFieldEnd()) {
+            closeQuote(quoted);
+            return null;
+        }
+        if (intDigits == 0 || (dot && fracDigits == 0)) throw error("Expected a number");
+
+        double value;
+        if (pos < end && (buf.get(pos) == 'e' || buf.get(pos) == 'E')) {
+            value = fallback(start);
+        } else if (!atFieldEnd()) {
+            throw error("Expected a number");
+        } else if (exact && mantissa <= MAX_EXACT_MANTISSA && scale < POW10.length) {
+            // Both operands are exact doubles, so one IEEE division rounds exactly like parseDouble.
+            value = scale == 0 ? mantissa : mantissa / POW10[scale];
+            if (negative) value = -value;
+        } else {
+            value = fallback(start);
+        }
+        closeQuote(quoted);
+        return value;
+    }
+
+    /**
+     * Finishes a number whose sign, digits and fraction are already consumed: an optional exponent,
+     * then {@link Double#parseDouble} over the whole field. Non-finite results are rejected.
+     */
+    private double fallback(int start) {
+        if (pos < end && (buf.get(pos) == 'e' || buf.get(pos) == 'E')) {
+            pos++;
+            if (pos < end && (buf.get(pos) == '-' || buf.get(pos) == '+')) pos++;
+            int expStart = pos;
+            while (pos < end && buf.get(pos) >= '0' && buf.get(pos) <= '9') pos++;
+            if (pos == expStart || !atFieldEnd()) throw error("Expected a number");
+        }
+        byte[] bytes = new byte[pos - start];
+        buf.get(start, bytes);
+        double value = Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+        if (!Double.isFinite(value)) throw error("Expected a number");
+        return value;
+    }
+
+    private int digits(int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int d = buf.get(i) - '0';
+            if (d < 0 || d > 9) throw error("Expected date as yyyy-MM-dd HH:mm:ss");
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    // ---- punctuation ----
+
+    private byte peek() {
+        return buf.get(pos);
+    }
+
+    private void skipRuleTag() {
+        pos += 2;
+    }
+
+    private void comma() {
+        if (pos >= end || buf.get(pos) != ',') throw error("Expected ','");
+        pos++;
+    }
+
+    private boolean atRowEnd() {
+        return pos >= end || buf.get(pos) == '\n' || buf.get(pos) == '\r';
+    }
+
+    private void endRow() {
+        if (pos < end && buf.get(pos) == '\r') pos++;
+        if (pos < end && buf.get(pos) != '\n') throw error("Unexpected extra columns");
+    }
+
+    /** True at a comma, line end, closing quote or end of input. */
+    private boolean atFieldEnd() {
+        return pos >= end || isFieldEnd(buf.get(pos)) || buf.get(pos) == '"';
+    }
+
+    private void skipLine() {
+        while (pos < end && buf.get(pos) != '\n') pos++;
+    }
+
+    private boolean openQuote() {
+        if (pos < end && buf.get(pos) == '"') {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void closeQuote(boolean quoted) {
+        if (!quoted) return;
+        if (pos >= end || buf.get(pos) != '"') throw error("Unterminated quoted field");
+        pos++;
+    }
+
+    private static boolean isFieldEnd(byte b) {
+        return b == ',' || b == '\n' || b == '\r';
+    }
+
+    private static boolean isLetter(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+    }
+
+    private CsvFormatException error(String message) {
+        return new CsvFormatException(line, message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+/** A goal-seek request with a missing target, an unknown K period or an unreachable goal. */
+public class InvalidGoalException extends IllegalArgumentException {
+
+    public InvalidGoalException(String message) {
+        super(message);
+    }
+}
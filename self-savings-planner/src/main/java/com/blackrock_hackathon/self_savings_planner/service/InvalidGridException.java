@@ -0,0 +1,9 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+/** A what-if grid with a malformed range or too many cells. */
+public class InvalidGridException extends IllegalArgumentException {
+
+    public InvalidGridException(String message) {
+        super(message);
+    }
+}
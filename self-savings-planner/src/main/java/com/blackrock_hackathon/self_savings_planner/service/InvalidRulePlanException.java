@@ -0,0 +1,9 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+/** A Q/P/K rule set that cannot be compiled, or an ambiguous plan reference. */
+public class InvalidRulePlanException extends IllegalArgumentException {
+
+    public InvalidRulePlanException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,75 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+import com.blackrock_hackathon.self_savings_planner.dto.common.TemporalData;
+import com.blackrock_hackathon.self_savings_planner.dto.period.K;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Union of K periods compiled into sorted, disjoint closed intervals.
+ *
+ * <p>Built once per request in O(K log K); {@link #contains} is then a single binary search
+ * instead of a scan over every K period. Periods with a missing or inverted bound can never
+ * match a date and are dropped.
+ */
+public final class KIntervalIndex {
+
+    private static final KIntervalIndex EMPTY = new KIntervalIndex(new LocalDateTime[0], new LocalDateTime[0]);
+
+    private final LocalDateTime[] starts;
+    private final LocalDateTime[] ends;
+
+    private KIntervalIndex(LocalDateTime[] starts, LocalDateTime[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    public static KIntervalIndex of(List<K> kPeriods) {
+        if (kPeriods == null || kPeriods.isEmpty()) return EMPTY;
+
+        List<TemporalData> periods = new ArrayList<>(kPeriods.size());
+        for (K k : kPeriods) {
+            TemporalData td = k == null ? null : k.temporalData();
+            if (td != null && td.start() != null && td.end() != null && !td.start().isAfter(td.end())) {
+                periods.add(td);
+            }
+        }
+        periods.sort(Comparator.comparing(TemporalData::start));
+
+        List<LocalDateTime> starts = new ArrayList<>();
+        List<LocalDateTime> ends = new ArrayList<>();
+        for (TemporalData td : periods) {
+            int last = ends.size() - 1;
+            if (last >= 0 && !td.start().isAfter(ends.get(last))) {
+                if (td.end().isAfter(ends.get(last))) ends.set(last, td.end());
+            } else {
+                starts.add(td.start());
+                ends.add(td.end());
+            }
+        }
+        return new KIntervalIndex(starts.toArray(LocalDateTime[]::new), ends.toArray(LocalDateTime[]::new));
+    }
+
+    /** True if {@code date} falls inside any K period (bounds inclusive). */
+    public boolean contains(LocalDateTime date) {
+        int lo = 0, hi = starts.length - 1, found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid].isAfter(date)) {
+                hi = mid - 1;
+            } else {
+                found = mid;
+                lo = mid + 1;
+            }
+        }
+        return found >= 0 && !date.isAfter(ends[found]);
+    }
+
+    /** Number of disjoint intervals after merging. */
+    public int size() {
+        return starts.length;
+    }
+}
@@ -0,0 +1,122 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+import com.blackrock_hackathon.self_savings_planner.dto.period.K;
+import com.blackrock_hackathon.self_savings_planner.dto.request.TransactionInput;
+import com.blackrock_hackathon.self_savings_planner.service.RequestTrace.Stage;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Steps 1–4 of the returns calculation as a running total: ceiling, Q and P per transaction, then
+ * the remnant added to the one K segment the transaction falls in.
+ *
+ * <p>Memory is fixed by the rule plan, not the number of transactions, and partial sums over
+ * disjoint sets of transactions {@link #merge} exactly, so large inputs can be accumulated in
+ * slices. Each K sum is read as a range of segments once all transactions are in.
+ */
+public final class PeriodSums {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final RulePlan plan;
+    private final BigDecimal[] segmentSums;
+    private final long[] segmentCounts;
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+    private BigDecimal totalCeiling = BigDecimal.ZERO;
+    private long transactions;
+
+    public PeriodSums(RulePlan plan) {
+        this.plan = plan;
+        this.segmentSums = new BigDecimal[plan.kSegments()];
+        this.segmentCounts = new long[plan.kSegments()];
+        Arrays.fill(segmentSums, BigDecimal.ZERO);
+    }
+
+    /** An empty accumulator over the same plan, for a slice that is merged back later. */
+    public PeriodSums newPartial() {
+        return new PeriodSums(plan);
+    }
+
+    /** Adds one transaction; negative or missing amounts are skipped. {@code trace} may be null. */
+    public void add(TransactionInput tx, RequestTrace trace) {
+        transactions++;
+        if (tx.amount() == null || tx.amount() < 0) return;
+
+        BigDecimal amount = BigDecimal.valueOf(tx.amount());
+        BigDecimal ceiling = amount.divide(HUNDRED, 0, RoundingMode.CEILING).multiply(HUNDRED);
+        BigDecimal remnant = ceiling.subtract(amount);
+
+        totalAmount = totalAmount.add(amount);
+        totalCeiling = totalCeiling.add(ceiling);
+        if (trace != null) trace.lap(Stage.CEILING);
+
+        remnant = plan.applyQ(tx.date(), remnant);
+        if (trace != null) trace.lap(Stage.Q);
+        remnant = plan.applyP(tx.date(), remnant);
+        if (trace != null) trace.lap(Stage.P);
+
+        int segment = plan.kSegment(tx.date());
+        if (segment >= 0) {
+            segmentSums[segment] = segmentSums[segment].add(remnant);
+            segmentCounts[segment]++;
+        }
+        if (trace != null) trace.lap(Stage.K);
+    }
+
+    /** Adds {@code other}, which must come from {@link #newPartial()} of this accumulator. */
+    public void merge(PeriodSums other) {
+        if (other.plan != plan) throw new IllegalArgumentException("PeriodSums over different plans");
+        for (int s = 0; s < segmentSums.length; s++) {
+            segmentSums[s] = segmentSums[s].add(other.segmentSums[s]);
+            segmentCounts[s] += other.segmentCounts[s];
+        }
+        totalAmount = totalAmount.add(other.totalAmount);
+        totalCeiling = totalCeiling.add(other.totalCeiling);
+        transactions += other.transactions;
+    }
+
+    public RulePlan plan() {
+        return plan;
+    }
+
+    public List<K> k() {
+        return plan.k();
+    }
+
+    /** Remnant sum of every K period, in K list order. */
+    public BigDecimal[] sums() {
+        BigDecimal[] prefix = new BigDecimal[segmentSums.length + 1];
+        prefix[0] = BigDecimal.ZERO;
+        for (int s = 0; s < segmentSums.length; s++) prefix[s + 1] = prefix[s].add(segmentSums[s]);
+
+        BigDecimal[] out = new BigDecimal[plan.k().size()];
+        for (int i = 0; i < out.length; i++) out[i] = prefix[plan.kTo(i)].subtract(prefix[plan.kFrom(i)]);
+        return out;
+    }
+
+    /** Number of summed transactions in every K period, in K list order. */
+    public long[] counts() {
+        long[] prefix = new long[segmentCounts.length + 1];
+        for (int s = 0; s < segmentCounts.length; s++) prefix[s + 1] = prefix[s] + segmentCounts[s];
+
+        long[] out = new long[plan.k().size()];
+        for (int i = 0; i < out.length; i++) out[i] = prefix[plan.kTo(i)] - prefix[plan.kFrom(i)];
+        return out;
+    }
+
+    public BigDecimal totalAmount() {
+        return totalAmount;
+    }
+
+    public BigDecimal totalCeiling() {
+        return totalCeiling;
+    }
+
+    /** Transactions added, including skipped ones. */
+    public long transactions() {
+        return transactions;
+    }
+}
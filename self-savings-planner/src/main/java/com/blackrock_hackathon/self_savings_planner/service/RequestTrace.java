@@ -0,0 +1,114 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-request stage timings, allocated bytes and input cardinalities, reported as a
+ * {@code Server-Timing} header when the client sends {@link #HEADER}.
+ *
+ * <p>The trace lives in a thread local that is only set for traced requests. Services fetch
+ * {@link #current()} once per call and skip all bookkeeping when it is {@code null}, so untraced
+ * requests pay one thread-local read per service call. Timing is lap based: {@link #lap(Stage)}
+ * charges the time since the previous lap (or {@link #mark()}) to the given stage, so stages
+ * that interleave per transaction, like ceiling, Q and P, are still separated.
+ */
+public final class RequestTrace {
+
+    /** Request header that turns tracing on for one request. */
+    public static final String HEADER = "X-Planner-Trace";
+
+    public enum Stage {
+        DESERIALIZE, PLAN, CEILING, Q, P, K, VALIDATE, COMPOUNDING, TAX, SERIALIZE;
+
+        private final String metric = name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final long startNanos;
+    private final long startAllocated;
+    private final long[] stageNanos = new long[Stage.values().length];
+    private final Map<String, Long> cardinalities = new LinkedHashMap<>();
+    private long last;
+
+    private RequestTrace() {
+        this.startNanos = System.nanoTime();
+        this.startAllocated = allocatedBytes();
+        this.last = startNanos;
+    }
+
+    /** Starts tracing the current thread's request. */
+    public static RequestTrace start() {
+        RequestTrace trace = new RequestTrace();
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    /** The current request's trace, or {@code null} when the request is not traced. */
+    public static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /** {@link #lap(Stage)} on the current trace, if any. */
+    public static void lapIfTracing(Stage stage) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) trace.lap(stage);
+    }
+
+    /** Restarts the lap clock without charging the elapsed time to any stage. */
+    public void mark() {
+        last = System.nanoTime();
+    }
+
+    /** Charges the time since the previous lap or mark to {@code stage}. */
+    public void lap(Stage stage) {
+        long now = System.nanoTime();
+        stageNanos[stage.ordinal()] += now - last;
+        last = now;
+    }
+
+    /** Records an input or output size, e.g. {@code tx} or {@code k}. */
+    public void cardinality(String name, long value) {
+        cardinalities.put(name, value);
+    }
+
+    /**
+     * The {@code Server-Timing} header value: one {@code dur} entry in milliseconds per stage that
+     * ran, a {@code total}, then {@code alloc} and the cardinalities as {@code desc} entries.
+     * Allocated bytes are omitted where the JVM cannot report them (e.g. virtual threads).
+     */
+    public String serverTiming() {
+        StringBuilder sb = new StringBuilder();
+        for (Stage stage : Stage.values()) {
+            long nanos = stageNanos[stage.ordinal()];
+            if (nanos > 0) appendDuration(sb, stage.metric, nanos);
+        }
+        appendDuration(sb, "total", System.nanoTime() - startNanos);
+        long allocated = allocatedBytes();
+        if (startAllocated >= 0 && allocated >= 0) {
+            sb.append(", alloc;desc=\"").append(allocated - startAllocated).append(" B\"");
+        }
+        cardinalities.forEach((name, value) -> sb.append(", ").append(name).append(";desc=").append(value));
+        return sb.toString();
+    }
+
+    private static void appendDuration(StringBuilder sb, String name, long nanos) {
+        if (!sb.isEmpty()) sb.append(", ");
+        sb.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1e6));
+    }
+
+    private static long allocatedBytes() {
+        return THREADS.isThreadAllocatedMemoryEnabled()
+                ? THREADS.getThreadAllocatedBytes(Thread.currentThread().threadId())
+                : -1;
+    }
+}
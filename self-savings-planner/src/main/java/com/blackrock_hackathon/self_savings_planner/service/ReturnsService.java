@@ -1,21 +1,25 @@
 package com.blackrock_hackathon.self_savings_planner.service;
 
+import com.blackrock_hackathon.self_savings_planner.dto.common.ParameterRange;
 import com.blackrock_hackathon.self_savings_planner.dto.common.TemporalData;
-import com.blackrock_hackathon.self_savings_planner.dto.period.K;
-import com.blackrock_hackathon.self_savings_planner.dto.period.P;
-import com.blackrock_hackathon.self_savings_planner.dto.period.Q;
+import com.blackrock_hackathon.self_savings_planner.dto.request.GoalSeekRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.ReturnsGridRequest;
 import com.blackrock_hackathon.self_savings_planner.dto.request.ReturnsRequest;
 import com.blackrock_hackathon.self_savings_planner.dto.request.TransactionInput;
+import com.blackrock_hackathon.self_savings_planner.dto.response.GoalSeekResponse;
+import com.blackrock_hackathon.self_savings_planner.dto.response.ReturnsGridResponse;
 import com.blackrock_hackathon.self_savings_planner.dto.response.ReturnsResponse;
 import com.blackrock_hackathon.self_savings_planner.dto.response.Saving;
+import com.blackrock_hackathon.self_savings_planner.service.RequestTrace.Stage;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * Calculates projected investment returns for NPS and Index fund strategies.
@@ -28,6 +32,11 @@ import java.util.List;
  *   <li>Group by K-periods and sum remnants</li>
  *   <li>Compound interest → inflation adjustment → tax benefit (NPS only)</li>
  * </ol>
+ *
+ * <p>Q/P/K come either inline or from an uploaded {@link RulePlan}; both are applied through the
+ * plan's compiled lookup tables.
+ *
+ * <p>When the request is traced, each step is charged to its {@link RequestTrace} stage.
  */
 @Service
 public class ReturnsService {
@@ -40,6 +49,17 @@ public class ReturnsService {
     private static final BigDecimal NPS_INCOME_PERCENT = new BigDecimal("0.10");
     private static final MathContext MC = MathContext.DECIMAL128;
     private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private static final int MAX_GRID_CELLS = 2_000_000;
+    private static final int MAX_GRID_AXIS = 1_000;
+    private static final int PARALLEL_GRID_CELLS = 20_000;
+    private static final BigDecimal GOAL_TOLERANCE = new BigDecimal("0.0001");
+    private static final int MAX_GOAL_ITERATIONS = 64;
+
+    private final RulePlanService rulePlanService;
+
+    public ReturnsService(RulePlanService rulePlanService) {
+        this.rulePlanService = rulePlanService;
+    }
 
     public ReturnsResponse calculateNpsReturns(ReturnsRequest request) {
         return calculateReturns(request, NPS_RATE, true);
@@ -49,81 +69,294 @@ public class ReturnsService {
         return calculateReturns(request, INDEX_RATE, false);
     }
 
-    private ReturnsResponse calculateReturns(ReturnsRequest request, BigDecimal rate, boolean isNps) {
-        int years = request.age() < RETIREMENT_AGE
-                ? RETIREMENT_AGE - request.age()
-                : MIN_INVESTMENT_YEARS;
-
-        BigDecimal inflation = BigDecimal.valueOf(request.inflation()).divide(HUNDRED, MC);
-        BigDecimal annualIncome = BigDecimal.valueOf(request.wage()).multiply(BigDecimal.valueOf(12));
+    /**
+     * An empty {@link PeriodSums} over the rules of {@code rules}, for callers that add transactions
+     * themselves (e.g. in slices) and then call {@link #calculateNpsReturns(ReturnsRequest, PeriodSums)}.
+     */
+    public PeriodSums newPeriodSums(ReturnsRequest rules) {
+        PeriodSums sums = new PeriodSums(rulePlanService.resolve(rules.planId(), rules.q(), rules.p(), rules.k()));
+        RequestTrace.lapIfTracing(Stage.PLAN);
+        return sums;
+    }
 
-        List<TxRemnant> enriched = new ArrayList<>();
-        BigDecimal totalAmount = BigDecimal.ZERO;
-        BigDecimal totalCeiling = BigDecimal.ZERO;
+    /** Step 5 on sums from {@link #newPeriodSums}; {@code request} supplies age, wage and inflation. */
+    public ReturnsResponse calculateNpsReturns(ReturnsRequest request, PeriodSums sums) {
+        return calculateReturns(request, sums, NPS_RATE, true, traceSizes(sums));
+    }
 
-        for (TransactionInput tx : request.transactions()) {
-            if (tx.amount() == null || tx.amount() < 0) continue;
+    /** Step 5 on sums from {@link #newPeriodSums}; {@code request} supplies age and inflation. */
+    public ReturnsResponse calculateIndexReturns(ReturnsRequest request, PeriodSums sums) {
+        return calculateReturns(request, sums, INDEX_RATE, false, traceSizes(sums));
+    }
 
-            BigDecimal amount = BigDecimal.valueOf(tx.amount());
-            BigDecimal ceiling = amount.divide(HUNDRED, 0, RoundingMode.CEILING).multiply(HUNDRED);
-            BigDecimal remnant = ceiling.subtract(amount);
+    /** The current trace, if any, with the sizes that {@link #periodSums} records for a listed request. */
+    private static RequestTrace traceSizes(PeriodSums sums) {
+        RequestTrace trace = RequestTrace.current();
+        if (trace != null) {
+            trace.cardinality("tx", sums.transactions());
+            trace.cardinality("q", sums.plan().q().size());
+            trace.cardinality("p", sums.plan().p().size());
+            trace.cardinality("k", sums.plan().k().size());
+        }
+        return trace;
+    }
 
-            totalAmount = totalAmount.add(amount);
-            totalCeiling = totalCeiling.add(ceiling);
+    private ReturnsResponse calculateReturns(ReturnsRequest request, BigDecimal rate, boolean isNps) {
+        RequestTrace trace = RequestTrace.current();
+        if (trace != null) trace.mark();
+        return calculateReturns(request, periodSums(request, trace), rate, isNps, trace);
+    }
 
-            remnant = applyQ(tx.date(), remnant, request.q());
-            remnant = applyP(tx.date(), remnant, request.p());
+    private ReturnsResponse calculateReturns(ReturnsRequest request, PeriodSums sums, BigDecimal rate, boolean isNps,
+                                             RequestTrace trace) {
+        int years = years(request.age());
 
-            enriched.add(new TxRemnant(tx.date(), remnant));
-        }
+        BigDecimal inflation = BigDecimal.valueOf(request.inflation()).divide(HUNDRED, MC);
+        BigDecimal annualIncome = BigDecimal.valueOf(request.wage()).multiply(BigDecimal.valueOf(12));
 
+        BigDecimal[] periodSums = sums.sums();
         List<Saving> savings = new ArrayList<>();
-        for (K k : request.k()) {
-            BigDecimal sum = BigDecimal.ZERO;
-            for (TxRemnant tr : enriched) {
-                if (within(tr.date, k.temporalData())) {
-                    sum = sum.add(tr.remnant);
-                }
-            }
+        for (int i = 0; i < periodSums.length; i++) {
+            BigDecimal sum = periodSums[i];
 
             BigDecimal futureValue = sum.multiply(BigDecimal.ONE.add(rate).pow(years, MC), MC);
             BigDecimal realValue = futureValue.divide(BigDecimal.ONE.add(inflation).pow(years, MC), MC);
             BigDecimal profit = realValue.subtract(sum);
+            if (trace != null) trace.lap(Stage.COMPOUNDING);
             BigDecimal taxBenefit = isNps ? taxBenefit(sum, annualIncome) : BigDecimal.ZERO;
+            if (trace != null) trace.lap(Stage.TAX);
 
-            savings.add(new Saving(k.temporalData(), round2(sum), round2(profit), round2(taxBenefit)));
+            savings.add(new Saving(sums.k().get(i).temporalData(), round2(sum), round2(profit), round2(taxBenefit)));
         }
 
-        return new ReturnsResponse(round2(totalAmount), round2(totalCeiling), savings);
+        return new ReturnsResponse(round2(sums.totalAmount()), round2(sums.totalCeiling()), savings);
     }
 
-    /** If multiple Q periods match, the one with the latest start wins. Ties: first in list. */
-    private BigDecimal applyQ(LocalDateTime date, BigDecimal remnant, List<Q> qs) {
-        if (qs == null) return remnant;
-        Q best = null;
-        for (Q q : qs) {
-            if (within(date, q.temporalData())) {
-                if (best == null || q.temporalData().start().isAfter(best.temporalData().start())) {
-                    best = q;
-                }
+    /**
+     * What-if table of the request over ranges of age, inflation and return rate.
+     *
+     * <p>Steps 1–4 run once. Every grid cell then only needs {@code ((1 + rate) / (1 + inflation))^years}
+     * applied to the per-period sums, which is done in {@code double} over a flat array and split
+     * across cores for large grids. The tax benefit depends only on the sums and the wage, so it is
+     * computed once per period. Profits can differ by a cent from {@code /returns/*}, which
+     * compounds in {@code BigDecimal}.
+     *
+     * <p>The split runs on the common {@code ForkJoinPool}, shared by all requests and bounded at
+     * one worker per core less one, plus the request thread, in both thread modes (virtual threads are
+     * scheduled on a pool of their own). Admission charges every cell, so the work in flight there
+     * stays within {@code planner.admission.max-concurrent-cost}.
+     */
+    public ReturnsGridResponse calculateGrid(ReturnsGridRequest grid) {
+        ReturnsRequest request = grid.request();
+        if (request == null) throw new InvalidGridException("request must not be null");
+        String fund = grid.fund() == null ? "nps" : grid.fund().toLowerCase();
+        if (!fund.equals("nps") && !fund.equals("index")) {
+            throw new InvalidGridException("fund must be nps or index");
+        }
+        boolean isNps = fund.equals("nps");
+        BigDecimal fundRate = isNps ? NPS_RATE : INDEX_RATE;
+
+        double[] ageValues = expand("ages", grid.ages(), request.age() == null ? null : request.age().doubleValue());
+        double[] inflation = expand("inflation", grid.inflation(), request.inflation());
+        double[] rates = expand("rates", grid.rates(), fundRate.movePointRight(2).doubleValue());
+        int[] ages = new int[ageValues.length];
+        for (int a = 0; a < ages.length; a++) {
+            if (ageValues[a] != Math.rint(ageValues[a]) || ageValues[a] < 0) {
+                throw new InvalidGridException("ages must be whole non-negative numbers");
+            }
+            ages[a] = (int) ageValues[a];
+        }
+        if ((long) ages.length * inflation.length * rates.length > MAX_GRID_CELLS) {
+            throw new InvalidGridException("Grid has more than " + MAX_GRID_CELLS + " cells");
+        }
+        int points = ages.length * inflation.length * rates.length;
+        if (isNps && request.wage() == null) throw new InvalidGridException("request.wage is required for nps");
+
+        RequestTrace trace = RequestTrace.current();
+        if (trace != null) trace.mark();
+        PeriodSums sums = periodSums(request, trace);
+        int periods = sums.k().size();
+        if ((long) points * periods > MAX_GRID_CELLS) {
+            throw new InvalidGridException("Grid × K periods has more than " + MAX_GRID_CELLS + " cells");
+        }
+
+        double[] sum = new double[periods];
+        List<TemporalData> temporalData = new ArrayList<>(periods);
+        List<Double> amounts = new ArrayList<>(periods);
+        List<Double> taxBenefits = new ArrayList<>(periods);
+        BigDecimal annualIncome = isNps ? BigDecimal.valueOf(request.wage()).multiply(BigDecimal.valueOf(12)) : null;
+        BigDecimal[] periodSums = sums.sums();
+        for (int k = 0; k < periods; k++) {
+            BigDecimal periodSum = periodSums[k];
+            sum[k] = periodSum.doubleValue();
+            temporalData.add(sums.k().get(k).temporalData());
+            amounts.add(round2(periodSum));
+            taxBenefits.add(isNps ? round2(taxBenefit(periodSum, annualIncome)) : 0.0);
+        }
+        if (trace != null) trace.lap(Stage.TAX);
+
+        double[][] growth = new double[ages.length][rates.length];
+        double[][] discount = new double[ages.length][inflation.length];
+        for (int a = 0; a < ages.length; a++) {
+            int years = years(ages[a]);
+            for (int r = 0; r < rates.length; r++) growth[a][r] = Math.pow(1 + rates[r] / 100, years);
+            for (int i = 0; i < inflation.length; i++) discount[a][i] = Math.pow(1 + inflation[i] / 100, years);
+        }
+
+        double[] profit = new double[points * periods];
+        int perAge = inflation.length * rates.length;
+        IntStream cells = IntStream.range(0, points);
+        (profit.length >= PARALLEL_GRID_CELLS ? cells.parallel() : cells).forEach(cell -> {
+            int a = cell / perAge;
+            int i = cell % perAge / rates.length;
+            int r = cell % rates.length;
+            double factor = growth[a][r] / discount[a][i];
+            int offset = cell * periods;
+            for (int k = 0; k < periods; k++) {
+                profit[offset + k] = round2(sum[k] * factor - sum[k]);
             }
+        });
+        if (trace != null) {
+            trace.lap(Stage.COMPOUNDING);
+            trace.cardinality("cells", profit.length);
         }
-        return best != null ? BigDecimal.valueOf(best.fixed()) : remnant;
+
+        return new ReturnsGridResponse(
+                Arrays.stream(ages).boxed().toList(),
+                Arrays.stream(inflation).boxed().toList(),
+                Arrays.stream(rates).boxed().toList(),
+                temporalData, amounts, taxBenefits,
+                round2(sums.totalAmount()), round2(sums.totalCeiling()), profit);
     }
 
-    /** All matching P extras are summed and added to the remnant. */
-    private BigDecimal applyP(LocalDateTime date, BigDecimal remnant, List<P> ps) {
-        if (ps == null) return remnant;
-        for (P p : ps) {
-            if (within(date, p.temporalData())) {
-                remnant = remnant.add(BigDecimal.valueOf(p.extra()));
+    public GoalSeekResponse goalSeekNps(GoalSeekRequest goal) {
+        return goalSeek(goal, NPS_RATE, true);
+    }
+
+    public GoalSeekResponse goalSeekIndex(GoalSeekRequest goal) {
+        return goalSeek(goal, INDEX_RATE, false);
+    }
+
+    /**
+     * The smallest extra per transaction, in cents, that brings one K period's corpus (real value at
+     * retirement plus, for NPS, the tax benefit) to the target.
+     *
+     * <p>An extra {@code x} is applied like a P period covering every transaction, i.e. after Q, so
+     * the period sum is {@code base + x·n} for the period's Q/P-adjusted sum {@code base} and its
+     * transaction count {@code n}; both come from one pass over the transactions. The real value is
+     * linear in the sum, so without a tax benefit the sum needed is {@code target / growth}. The NPS
+     * tax benefit is non-decreasing and capped, which brackets the needed sum between
+     * {@code (target − maxBenefit) / growth} and {@code target / growth}; a bisection over that
+     * bracket evaluates only the tax slabs, never the transactions.
+     */
+    private GoalSeekResponse goalSeek(GoalSeekRequest goal, BigDecimal rate, boolean isNps) {
+        ReturnsRequest request = goal.request();
+        if (request == null) throw new InvalidGoalException("request must not be null");
+        if (goal.target() == null || !(goal.target() > 0)) throw new InvalidGoalException("target must be positive");
+        if (request.age() == null) throw new InvalidGoalException("request.age is required");
+        if (request.inflation() == null) throw new InvalidGoalException("request.inflation is required");
+        if (isNps && request.wage() == null) throw new InvalidGoalException("request.wage is required for nps");
+        RequestTrace trace = RequestTrace.current();
+        if (trace != null) trace.mark();
+
+        PeriodSums sums = periodSums(request, trace);
+        int index = goal.period() == null ? 0 : goal.period();
+        if (index < 0 || index >= sums.k().size()) {
+            throw new InvalidGoalException("period must index one of the " + sums.k().size() + " K periods");
+        }
+        BigDecimal base = sums.sums()[index];
+        long count = sums.counts()[index];
+
+        int years = years(request.age());
+        BigDecimal inflation = BigDecimal.valueOf(request.inflation()).divide(HUNDRED, MC);
+        BigDecimal growth = BigDecimal.ONE.add(rate).pow(years, MC)
+                .divide(BigDecimal.ONE.add(inflation).pow(years, MC), MC);
+        BigDecimal annualIncome = isNps ? BigDecimal.valueOf(request.wage()).multiply(BigDecimal.valueOf(12)) : null;
+        BigDecimal target = BigDecimal.valueOf(goal.target());
+
+        BigDecimal hi = target.divide(growth, MC);
+        int iterations = 0;
+        if (isNps) {
+            BigDecimal maxBenefit = taxBenefit(MAX_NPS_DEDUCTION, annualIncome);
+            BigDecimal lo = target.subtract(maxBenefit).divide(growth, MC).max(BigDecimal.ZERO);
+            while (hi.subtract(lo).compareTo(GOAL_TOLERANCE) > 0 && iterations++ < MAX_GOAL_ITERATIONS) {
+                BigDecimal mid = lo.add(hi).divide(BigDecimal.TWO, MC);
+                if (corpus(mid, growth, annualIncome).compareTo(target) >= 0) hi = mid;
+                else lo = mid;
             }
         }
-        return remnant;
+
+        BigDecimal extra = BigDecimal.ZERO;
+        if (hi.compareTo(base) > 0) {
+            if (count == 0) {
+                throw new InvalidGoalException("k[" + index + "] has no transactions, so no extra can reach the target");
+            }
+            extra = hi.subtract(base).divide(BigDecimal.valueOf(count), 2, RoundingMode.CEILING);
+        }
+        BigDecimal sum = base.add(extra.multiply(BigDecimal.valueOf(count)));
+        BigDecimal realValue = sum.multiply(growth, MC);
+        BigDecimal taxBenefit = isNps ? taxBenefit(sum, annualIncome) : BigDecimal.ZERO;
+        if (trace != null) {
+            trace.lap(Stage.COMPOUNDING);
+            trace.cardinality("iterations", iterations);
+        }
+
+        return new GoalSeekResponse(sums.k().get(index).temporalData(), goal.target(), round2(extra), count,
+                round2(base), round2(sum), round2(realValue.subtract(sum)), round2(taxBenefit),
+                round2(realValue.add(taxBenefit)));
+    }
+
+    private BigDecimal corpus(BigDecimal sum, BigDecimal growth, BigDecimal annualIncome) {
+        return sum.multiply(growth, MC).add(taxBenefit(sum, annualIncome));
+    }
+
+    /**
+     * Steps 1–4 via {@link PeriodSums}: ceiling, Q, P and the K segment are each one lookup in the
+     * compiled plan, so the cost is O(N log R) rather than O(N × K). Everything that depends on
+     * age, inflation or the rate of return comes after this, so what-if variants of one request
+     * can share the result.
+     */
+    private PeriodSums periodSums(ReturnsRequest request, RequestTrace trace) {
+        RulePlan plan = rulePlanService.resolve(request.planId(), request.q(), request.p(), request.k());
+        if (trace != null) trace.lap(Stage.PLAN);
+
+        PeriodSums sums = new PeriodSums(plan);
+        for (TransactionInput tx : request.transactions()) {
+            sums.add(tx, trace);
+        }
+        if (trace != null) {
+            trace.cardinality("tx", request.transactions().size());
+            trace.cardinality("q", plan.q().size());
+            trace.cardinality("p", plan.p().size());
+            trace.cardinality("k", plan.k().size());
+        }
+        return sums;
     }
 
-    private boolean within(LocalDateTime date, TemporalData period) {
-        return !date.isBefore(period.start()) && !date.isAfter(period.end());
+    /** The values of {@code range}, or just {@code fallback} when no range is given. */
+    private static double[] expand(String name, ParameterRange range, Double fallback) {
+        if (range == null) {
+            if (fallback == null) throw new InvalidGridException(name + " range or request value is required");
+            return new double[]{fallback};
+        }
+        if (range.from() == null) throw new InvalidGridException(name + ".from is required");
+        if (range.to() == null || range.to().equals(range.from())) return new double[]{range.from()};
+        if (range.step() == null) throw new InvalidGridException(name + ".step is required when to != from");
+        if (range.step() <= 0 || range.to() < range.from()) {
+            throw new InvalidGridException(name + " needs from <= to and step > 0");
+        }
+        double count = Math.floor((range.to() - range.from()) / range.step() + 1e-9) + 1;
+        if (count > MAX_GRID_AXIS) throw new InvalidGridException(name + " has more than " + MAX_GRID_AXIS + " values");
+        double[] values = new double[(int) count];
+        for (int v = 0; v < values.length; v++) {
+            // Round away the drift of repeated float steps (e.g. 0.1 + 0.2).
+            values[v] = Math.round((range.from() + v * range.step()) * 1e9) / 1e9;
+        }
+        return values;
+    }
+
+    private static int years(int age) {
+        return age < RETIREMENT_AGE ? RETIREMENT_AGE - age : MIN_INVESTMENT_YEARS;
     }
 
     /**
@@ -159,7 +392,10 @@ public class ReturnsService {
         return v.setScale(2, RoundingMode.HALF_UP).doubleValue();
     }
 
-    private static BigDecimal bd(String v) { return new BigDecimal(v); }
+    /** Half-up to cents, like {@link #round2(BigDecimal)} but on a {@code double}. */
+    private static double round2(double v) {
+        return Math.copySign(Math.floor(Math.abs(v) * 100 + 0.5) / 100, v);
+    }
 
-    private record TxRemnant(LocalDateTime date, BigDecimal remnant) {}
+    private static BigDecimal bd(String v) { return new BigDecimal(v); }
 }
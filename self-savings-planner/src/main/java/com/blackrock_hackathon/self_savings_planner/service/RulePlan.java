@@ -0,0 +1,238 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+import com.blackrock_hackathon.self_savings_planner.dto.common.TemporalData;
+import com.blackrock_hackathon.self_savings_planner.dto.period.K;
+import com.blackrock_hackathon.self_savings_planner.dto.period.P;
+import com.blackrock_hackathon.self_savings_planner.dto.period.Q;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * A Q/P/K rule set compiled into immutable lookup tables.
+ *
+ * <p>All Q and P period bounds are cut into elementary segments {@code [b[i], b[i+1])}, with each
+ * period's inclusive end turned into an exclusive bound one nanosecond later (a period ending at
+ * {@link LocalDateTime#MAX} has no such bound and runs to the last segment). Each segment stores
+ * the winning Q fixed amount (latest start, ties to the first in the list) and the sum of all
+ * covering P extras, so applying Q and P to a transaction is one binary search each instead of a
+ * scan over every period. K periods keep their original order for per-period savings; their bounds
+ * are cut into segments the same way, so a transaction's remnant is added to one segment and each
+ * K sum is a range of segments (see {@link PeriodSums}). They are also merged into a
+ * {@link KIntervalIndex} for membership checks.
+ */
+public final class RulePlan {
+
+    private final List<Q> q;
+    private final List<P> p;
+    private final List<K> k;
+
+    private final LocalDateTime[] qBounds;
+    private final BigDecimal[] qFixed;
+    private final LocalDateTime[] pBounds;
+    private final BigDecimal[] pExtra;
+    private final LocalDateTime[] kBounds;
+    private final int[] kFrom;
+    private final int[] kTo;
+    private final KIntervalIndex kIndex;
+
+    private RulePlan(List<Q> q, List<P> p, List<K> k) {
+        this.q = q;
+        this.p = p;
+        this.k = k;
+
+        List<TemporalData> qPeriods = new ArrayList<>(q.size());
+        BigDecimal[] fixed = new BigDecimal[q.size()];
+        for (int i = 0; i < q.size(); i++) {
+            Q rule = q.get(i);
+            qPeriods.add(checked(rule.temporalData(), "q", i));
+            fixed[i] = BigDecimal.valueOf(required(rule.fixed(), "q", i, "fixed"));
+        }
+        this.qBounds = bounds(qPeriods);
+        this.qFixed = resolveQ(qBounds, qPeriods, fixed);
+
+        List<TemporalData> pPeriods = new ArrayList<>(p.size());
+        BigDecimal[] extra = new BigDecimal[p.size()];
+        for (int i = 0; i < p.size(); i++) {
+            P rule = p.get(i);
+            pPeriods.add(checked(rule.temporalData(), "p", i));
+            extra[i] = BigDecimal.valueOf(required(rule.extra(), "p", i, "extra"));
+        }
+        this.pBounds = bounds(pPeriods);
+        this.pExtra = sumP(pBounds, pPeriods, extra);
+
+        List<TemporalData> kPeriods = new ArrayList<>(k.size());
+        for (int i = 0; i < k.size(); i++) {
+            kPeriods.add(checked(k.get(i).temporalData(), "k", i));
+        }
+        this.kBounds = bounds(kPeriods);
+        this.kFrom = new int[k.size()];
+        this.kTo = new int[k.size()];
+        for (int i = 0; i < k.size(); i++) {
+            TemporalData td = kPeriods.get(i);
+            if (td.start().isAfter(td.end())) continue;
+            kFrom[i] = Arrays.binarySearch(kBounds, td.start());
+            kTo[i] = td.end().equals(LocalDateTime.MAX)
+                    ? kBounds.length
+                    : Arrays.binarySearch(kBounds, td.end().plusNanos(1));
+        }
+        this.kIndex = KIntervalIndex.of(k);
+    }
+
+    /** Compiles a rule set; {@code null} lists count as empty. */
+    public static RulePlan compile(List<Q> q, List<P> p, List<K> k) {
+        return new RulePlan(
+                q == null ? List.of() : List.copyOf(q),
+                p == null ? List.of() : List.copyOf(p),
+                k == null ? List.of() : List.copyOf(k));
+    }
+
+    /** The fixed amount of the winning Q period, or {@code remnant} if none covers {@code date}. */
+    public BigDecimal applyQ(LocalDateTime date, BigDecimal remnant) {
+        int segment = segment(qBounds, date);
+        BigDecimal fixed = segment < 0 ? null : qFixed[segment];
+        return fixed != null ? fixed : remnant;
+    }
+
+    /** {@code remnant} plus every P extra covering {@code date}. */
+    public BigDecimal applyP(LocalDateTime date, BigDecimal remnant) {
+        int segment = segment(pBounds, date);
+        BigDecimal extra = segment < 0 ? null : pExtra[segment];
+        return extra != null ? remnant.add(extra) : remnant;
+    }
+
+    /** Index of the K segment containing {@code date}, or -1 if no K period covers it. */
+    public int kSegment(LocalDateTime date) {
+        return segment(kBounds, date);
+    }
+
+    /** Number of K segments; K period {@code i} covers segments {@code [kFrom(i), kTo(i))}. */
+    public int kSegments() {
+        return kBounds.length;
+    }
+
+    public int kFrom(int i) {
+        return kFrom[i];
+    }
+
+    public int kTo(int i) {
+        return kTo[i];
+    }
+
+    public List<Q> q() {
+        return q;
+    }
+
+    public List<P> p() {
+        return p;
+    }
+
+    public List<K> k() {
+        return k;
+    }
+
+    public KIntervalIndex kIndex() {
+        return kIndex;
+    }
+
+    // ---- compilation ----
+
+    /** Sorted distinct segment bounds: every start and every end + 1 ns (none for an end at MAX). */
+    private static LocalDateTime[] bounds(List<TemporalData> periods) {
+        List<LocalDateTime> points = new ArrayList<>(periods.size() * 2);
+        for (TemporalData td : periods) {
+            if (td.start().isAfter(td.end())) continue;
+            points.add(td.start());
+            if (!td.end().equals(LocalDateTime.MAX)) points.add(td.end().plusNanos(1));
+        }
+        return points.stream().distinct().sorted().toArray(LocalDateTime[]::new);
+    }
+
+    /** Sweep over the bounds keeping the active Q periods ordered by latest start, then list order. */
+    private static BigDecimal[] resolveQ(LocalDateTime[] bounds, List<TemporalData> periods, BigDecimal[] fixed) {
+        Integer[] byStart = order(periods, Comparator.comparing(i -> periods.get(i).start()));
+        Integer[] byEnd = order(periods, Comparator.comparing(i -> periods.get(i).end()));
+        TreeSet<Integer> active = new TreeSet<>(
+                Comparator.<Integer, LocalDateTime>comparing(i -> periods.get(i).start()).reversed()
+                        .thenComparing(Comparator.naturalOrder()));
+
+        BigDecimal[] out = new BigDecimal[bounds.length];
+        int s = 0, e = 0;
+        for (int b = 0; b < bounds.length; b++) {
+            while (s < byStart.length && !periods.get(byStart[s]).start().isAfter(bounds[b])) {
+                active.add(byStart[s++]);
+            }
+            while (e < byEnd.length && periods.get(byEnd[e]).end().isBefore(bounds[b])) {
+                active.remove(byEnd[e++]);
+            }
+            out[b] = active.isEmpty() ? null : fixed[active.first()];
+        }
+        return out;
+    }
+
+    /** Sweep over the bounds keeping a running sum of the active P extras. */
+    private static BigDecimal[] sumP(LocalDateTime[] bounds, List<TemporalData> periods, BigDecimal[] extra) {
+        Integer[] byStart = order(periods, Comparator.comparing(i -> periods.get(i).start()));
+        Integer[] byEnd = order(periods, Comparator.comparing(i -> periods.get(i).end()));
+
+        BigDecimal[] out = new BigDecimal[bounds.length];
+        BigDecimal sum = BigDecimal.ZERO;
+        int active = 0, s = 0, e = 0;
+        for (int b = 0; b < bounds.length; b++) {
+            while (s < byStart.length && !periods.get(byStart[s]).start().isAfter(bounds[b])) {
+                sum = sum.add(extra[byStart[s++]]);
+                active++;
+            }
+            while (e < byEnd.length && periods.get(byEnd[e]).end().isBefore(bounds[b])) {
+                sum = sum.subtract(extra[byEnd[e++]]);
+                active--;
+            }
+            out[b] = active == 0 ? null : sum;
+        }
+        return out;
+    }
+
+    /** Indexes of the non-empty periods, sorted by {@code comparator}. */
+    private static Integer[] order(List<TemporalData> periods, Comparator<Integer> comparator) {
+        Integer[] out = new Integer[periods.size()];
+        int n = 0;
+        for (int i = 0; i < periods.size(); i++) {
+            if (!periods.get(i).start().isAfter(periods.get(i).end())) out[n++] = i;
+        }
+        out = Arrays.copyOf(out, n);
+        Arrays.sort(out, comparator);
+        return out;
+    }
+
+    /** Index of the segment containing {@code date}, or -1 before the first bound. */
+    private static int segment(LocalDateTime[] bounds, LocalDateTime date) {
+        int lo = 0, hi = bounds.length - 1, found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (bounds[mid].isAfter(date)) {
+                hi = mid - 1;
+            } else {
+                found = mid;
+                lo = mid + 1;
+            }
+        }
+        return found;
+    }
+
+    private static TemporalData checked(TemporalData td, String list, int index) {
+        if (td == null || td.start() == null || td.end() == null) {
+            throw new InvalidRulePlanException(list + "[" + index + "] must have a start and an end");
+        }
+        return td;
+    }
+
+    private static double required(Double value, String list, int index, String field) {
+        if (value == null) throw new InvalidRulePlanException(list + "[" + index + "]." + field + " must not be null");
+        return value;
+    }
+}
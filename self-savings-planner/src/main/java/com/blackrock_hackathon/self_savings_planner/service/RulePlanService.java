@@ -0,0 +1,133 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+import com.blackrock_hackathon.self_savings_planner.config.RulePlanProperties;
+import com.blackrock_hackathon.self_savings_planner.dto.common.TemporalData;
+import com.blackrock_hackathon.self_savings_planner.dto.period.K;
+import com.blackrock_hackathon.self_savings_planner.dto.period.P;
+import com.blackrock_hackathon.self_savings_planner.dto.period.Q;
+import com.blackrock_hackathon.self_savings_planner.dto.request.RulePlanRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.response.RulePlanResponse;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Compiles uploaded Q/P/K rule sets once and keeps them in a bounded LRU cache.
+ *
+ * <p>Plan ids are derived from the rule content, so uploading the same calendar twice returns the
+ * same id and re-uploading after an eviction restores it. Ids are not secrets and are not scoped to
+ * a caller: anyone who can guess a rule set can compute its id, use the cached plan and learn from
+ * the absence of a {@code 404} that someone uploaded it. No endpoint returns a plan's rules, and
+ * plans hold only calendar rules, no transactions or personal data.
+ *
+ * <p>The map is kept in least-recently-used order by re-inserting a plan on every {@link #get}, so
+ * {@link #peek} can read without changing what gets evicted. It is guarded by a
+ * {@link ReentrantLock} rather than {@code synchronized}, so request threads never pin their
+ * carrier when virtual threads are enabled.
+ */
+@Service
+public class RulePlanService {
+
+    private final Map<String, RulePlan> plans;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public RulePlanService(RulePlanProperties properties) {
+        int maxEntries = properties.maxEntries();
+        this.plans = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RulePlan> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public RulePlanResponse register(RulePlanRequest request) {
+        RulePlan plan = RulePlan.compile(request.q(), request.p(), request.k());
+        String planId = planId(plan);
+        lock.lock();
+        try {
+            plans.putIfAbsent(planId, plan);
+        } finally {
+            lock.unlock();
+        }
+        return new RulePlanResponse(planId, plan.q().size(), plan.p().size(), plan.k().size());
+    }
+
+    /** The cached plan, marked as most recently used. */
+    public RulePlan get(String planId) {
+        RulePlan plan;
+        lock.lock();
+        try {
+            plan = plans.remove(planId);
+            if (plan != null) plans.put(planId, plan);
+        } finally {
+            lock.unlock();
+        }
+        if (plan == null) throw new UnknownPlanException(planId);
+        return plan;
+    }
+
+    /**
+     * The cached plan, or {@code null} for a {@code null} or unknown id, without touching the LRU
+     * order. For bookkeeping such as admission costs and shadow verification, which must not keep
+     * a plan alive on behalf of its callers.
+     */
+    public RulePlan peek(String planId) {
+        if (planId == null) return null;
+        lock.lock();
+        try {
+            return plans.get(planId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The cached plan for {@code planId}, or the inline lists compiled for this request only. */
+    public RulePlan resolve(String planId, List<Q> q, List<P> p, List<K> k) {
+        if (planId == null) return RulePlan.compile(q, p, k);
+        requireNoInlineRules(q, p, k);
+        return get(planId);
+    }
+
+    /** K membership index from the cached plan, or built from the inline K list. */
+    public KIntervalIndex resolveKIndex(String planId, List<Q> q, List<P> p, List<K> k) {
+        if (planId == null) return KIntervalIndex.of(k);
+        requireNoInlineRules(q, p, k);
+        return get(planId).kIndex();
+    }
+
+    private static void requireNoInlineRules(List<Q> q, List<P> p, List<K> k) {
+        if (!isEmpty(q) || !isEmpty(p) || !isEmpty(k)) {
+            throw new InvalidRulePlanException("Send either planId or inline q/p/k lists, not both");
+        }
+    }
+
+    private static boolean isEmpty(List<?> list) {
+        return list == null || list.isEmpty();
+    }
+
+    /** SHA-256 over a canonical rendering of the rules, truncated to 128 bits. */
+    private static String planId(RulePlan plan) {
+        StringBuilder sb = new StringBuilder();
+        for (Q q : plan.q()) append(sb.append("q|").append(q.fixed()), q.temporalData());
+        for (P p : plan.p()) append(sb.append("p|").append(p.extra()), p.temporalData());
+        for (K k : plan.k()) append(sb.append("k"), k.temporalData());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void append(StringBuilder sb, TemporalData td) {
+        sb.append('|').append(td.start()).append('|').append(td.end()).append('\n');
+    }
+}
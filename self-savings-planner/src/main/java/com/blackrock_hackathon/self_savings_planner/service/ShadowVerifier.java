@@ -0,0 +1,241 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+import com.blackrock_hackathon.self_savings_planner.config.ShadowProperties;
+import com.blackrock_hackathon.self_savings_planner.dto.period.K;
+import com.blackrock_hackathon.self_savings_planner.dto.period.P;
+import com.blackrock_hackathon.self_savings_planner.dto.period.Q;
+import com.blackrock_hackathon.self_savings_planner.dto.request.FilterRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.ReturnsRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.ValidatorRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.response.ReturnsResponse;
+import com.blackrock_hackathon.self_savings_planner.dto.response.ValidationResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a sample of requests through the reference {@code BigDecimal} implementations and
+ * compares every field of the result with what the optimized path returned.
+ *
+ * <p>The request thread only rolls the sampling dice and enqueues the already computed response;
+ * the reference calculation and comparison run on a small bounded pool, and samples that find the
+ * queue full are dropped rather than making the caller wait. Divergences are counted per endpoint
+ * and field (e.g. {@code savingsByDates[].profit}) and logged with the expected and actual values.
+ */
+@Service
+public class ShadowVerifier implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ShadowVerifier.class);
+    private static final int LOGGED_DIVERGENCES = 10;
+
+    private final ShadowProperties properties;
+    private final RulePlanService rulePlanService;
+    private final MeterRegistry registry;
+    private final ThreadPoolExecutor executor;
+    private final ReferenceReturnsCalculator referenceReturns = new ReferenceReturnsCalculator();
+    private final ReferenceTransactionValidator referenceValidator = new ReferenceTransactionValidator();
+
+    public ShadowVerifier(ShadowProperties properties, RulePlanService rulePlanService, MeterRegistry registry) {
+        this.properties = properties;
+        this.rulePlanService = rulePlanService;
+        this.registry = registry;
+        this.executor = properties.enabled() && properties.sampleRate() > 0
+                ? new ThreadPoolExecutor(properties.threads(), properties.threads(), 0, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(properties.queueCapacity()),
+                        Thread.ofPlatform().name("planner-shadow-", 0).daemon().factory(),
+                        (task, pool) -> count(((Comparison) task).endpoint, "dropped"))
+                : null;
+    }
+
+    public void verifyReturns(String endpoint, ReturnsRequest request, ReturnsResponse actual) {
+        if (sample()) compareReturns(endpoint, request, actual);
+    }
+
+    public void verifyValidation(String endpoint, ValidatorRequest request, ValidationResult actual) {
+        if (sample()) compareValidation(endpoint, request, actual);
+    }
+
+    public void verifyFilter(String endpoint, FilterRequest request, ValidationResult actual) {
+        if (!sample() || request == null) return;
+        submit(endpoint, actual, () -> referenceValidator.validate(
+                request.wage() != null ? request.wage() : 0.0, request.transactions(),
+                request.planId() != null ? plan(request.planId()).k() : request.k()));
+    }
+
+    /**
+     * Rolls the sampling dice up front, for streamed uploads that keep a copy of their rows only
+     * when they will be compared; pass a sampled request to {@code compareReturns} or
+     * {@code compareValidation}, which do not sample again.
+     */
+    public boolean sample() {
+        return executor != null && ThreadLocalRandom.current().nextDouble() < properties.sampleRate();
+    }
+
+    public void compareReturns(String endpoint, ReturnsRequest request, ReturnsResponse actual) {
+        if (executor == null) return;
+        boolean nps = endpoint.endsWith("nps");
+        submit(endpoint, actual, () -> {
+            if (request.planId() == null) {
+                return referenceReturns.calculate(request, request.q(), request.p(), orEmpty(request.k()), nps);
+            }
+            RulePlan plan = plan(request.planId());
+            return referenceReturns.calculate(request, plan.q(), plan.p(), plan.k(), nps);
+        });
+    }
+
+    public void compareValidation(String endpoint, ValidatorRequest request, ValidationResult actual) {
+        if (executor == null || request == null) return;
+        submit(endpoint, actual, () -> referenceValidator.validate(
+                request.wage() != null ? request.wage() : 0.0, request.transactions(), null));
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (executor == null) return;
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /** Reads the plan without touching its LRU position, so sampling never changes evictions. */
+    private RulePlan plan(String planId) {
+        RulePlan plan = rulePlanService.peek(planId);
+        if (plan == null) throw new UnknownPlanException(planId);
+        return plan;
+    }
+
+    private void submit(String endpoint, Object actual, Supplier<Object> reference) {
+        executor.execute(new Comparison(endpoint, actual, reference));
+    }
+
+    private void compare(String endpoint, Object actual, Supplier<Object> reference) {
+        Object expected;
+        try {
+            expected = reference.get();
+        } catch (UnknownPlanException e) {
+            count(endpoint, "skipped");  // plan evicted since the request ran
+            return;
+        } catch (RuntimeException e) {
+            // The fast path produced a response, so the reference throwing is itself a divergence.
+            count(endpoint, "divergent");
+            divergence(endpoint, "exception");
+            log.warn("Shadow verification of {}: reference path threw {}", endpoint, e.toString());
+            return;
+        }
+
+        List<Divergence> divergences = diff(expected, actual);
+        if (divergences.isEmpty()) {
+            count(endpoint, "match");
+            return;
+        }
+        count(endpoint, "divergent");
+        divergences.stream().map(Divergence::field).distinct().forEach(field -> divergence(endpoint, field));
+        log.warn("Shadow verification of {}: {} field(s) differ from the reference path, first {}: {}",
+                endpoint, divergences.size(), Math.min(LOGGED_DIVERGENCES, divergences.size()),
+                divergences.subList(0, Math.min(LOGGED_DIVERGENCES, divergences.size())));
+    }
+
+    private void count(String endpoint, String outcome) {
+        Counter.builder("planner.shadow.comparisons")
+                .description("Shadow comparisons of the optimized path against the reference path")
+                .tag("endpoint", endpoint).tag("outcome", outcome)
+                .register(registry).increment();
+    }
+
+    private void divergence(String endpoint, String field) {
+        Counter.builder("planner.shadow.divergences")
+                .description("Shadow comparisons in which this field differed")
+                .tag("endpoint", endpoint).tag("field", field)
+                .register(registry).increment();
+    }
+
+    private static <T> List<T> orEmpty(List<T> list) {
+        return list != null ? list : List.of();
+    }
+
+    // ---- field-by-field comparison ----
+
+    /**
+     * One differing value. {@code field} drops list indexes so it can be used as a metric tag;
+     * {@code path} keeps them for the log.
+     */
+    record Divergence(String field, String path, Object expected, Object actual) {
+        @Override
+        public String toString() {
+            return path + ": expected " + expected + " but was " + actual;
+        }
+    }
+
+    /** Walks records and lists in parallel and collects every leaf value that differs. */
+    static List<Divergence> diff(Object expected, Object actual) {
+        List<Divergence> out = new ArrayList<>();
+        diff("", "", expected, actual, out);
+        return out;
+    }
+
+    private static void diff(String field, String path, Object expected, Object actual, List<Divergence> out) {
+        if (expected instanceof Record e && actual instanceof Record a && e.getClass() == a.getClass()) {
+            for (RecordComponent component : e.getClass().getRecordComponents()) {
+                String name = component.getName();
+                diff(join(field, name), join(path, name), value(component, e), value(component, a), out);
+            }
+        } else if (expected instanceof List<?> e && actual instanceof List<?> a) {
+            if (e.size() != a.size()) {
+                out.add(new Divergence(field + ".size", path + ".size", e.size(), a.size()));
+            }
+            for (int i = 0; i < Math.min(e.size(), a.size()); i++) {
+                diff(field + "[]", path + "[" + i + "]", e.get(i), a.get(i), out);
+            }
+        } else if (!sameValue(expected, actual)) {
+            out.add(new Divergence(field.isEmpty() ? "result" : field, path, expected, actual));
+        }
+    }
+
+    /** Doubles compare numerically so that {@code 0.0} and {@code -0.0} match. */
+    private static boolean sameValue(Object expected, Object actual) {
+        if (expected instanceof Double e && actual instanceof Double a) return e.doubleValue() == a.doubleValue();
+        return Objects.equals(expected, actual);
+    }
+
+    private static Object value(RecordComponent component, Record record) {
+        try {
+            return component.getAccessor().invoke(record);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot read " + component.getName(), e);
+        }
+    }
+
+    private static String join(String prefix, String name) {
+        return prefix.isEmpty() ? name : prefix + "." + name;
+    }
+
+    private final class Comparison implements Runnable {
+
+        private final String endpoint;
+        private final Object actual;
+        private final Supplier<Object> reference;
+
+        private Comparison(String endpoint, Object actual, Supplier<Object> reference) {
+            this.endpoint = endpoint;
+            this.actual = actual;
+            this.reference = reference;
+        }
+
+        @Override
+        public void run() {
+            compare(endpoint, actual, reference);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+import com.blackrock_hackathon.self_savings_planner.dto.common.TemporalData;
+import com.blackrock_hackathon.self_savings_planner.dto.period.K;
+import com.blackrock_hackathon.self_savings_planner.dto.period.P;
+import com.blackrock_hackathon.self_savings_planner.dto.period.Q;
+import com.blackrock_hackathon.self_savings_planner.dto.request.FilterRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.ReturnsRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.TransactionInput;
+import com.blackrock_hackathon.self_savings_planner.dto.request.ValidatorRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.response.EnrichedTransaction;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic, realistically shaped requests for warm-up, benchmarks and tests.
+ *
+ * <p>Transactions are spread over one calendar year with unique timestamps and amounts in paise
+ * precision; rule periods are month-aligned, like a payroll calendar.
+ */
+public final class SyntheticWorkload {
+
+    private static final LocalDateTime YEAR_START = LocalDateTime.of(2023, 1, 1, 0, 0, 0);
+    private static final long SECONDS_PER_YEAR = 365L * 24 * 3600;
+
+    /** Large enough that the wage cap never rejects synthetic transactions. */
+    public static final double UNCAPPED_WAGE = 1.0e12;
+
+    private SyntheticWorkload() {
+    }
+
+    public static List<TransactionInput> transactions(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<TransactionInput> out = new ArrayList<>(count);
+        long step = Math.max(1, SECONDS_PER_YEAR / Math.max(count, 1));
+        for (int i = 0; i < count; i++) {
+            LocalDateTime date = YEAR_START.plusSeconds(i * step + random.nextLong(step));
+            double amount = random.nextInt(1, 500_000) / 100.0;
+            out.add(new TransactionInput(date, amount));
+        }
+        return out;
+    }
+
+    public static List<EnrichedTransaction> enriched(int count, long seed) {
+        List<EnrichedTransaction> out = new ArrayList<>(count);
+        for (TransactionInput tx : transactions(count, seed)) {
+            double ceiling = Math.ceil(tx.amount() / 100.0) * 100.0;
+            out.add(new EnrichedTransaction(tx.date(), tx.amount(), ceiling, ceiling - tx.amount()));
+        }
+        return out;
+    }
+
+    /** {@code rules} month-aligned periods each for Q, P and K. */
+    public static List<Q> q(int rules, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Q> out = new ArrayList<>(rules);
+        for (int i = 0; i < rules; i++) {
+            out.add(new Q((double) random.nextInt(0, 50), month(i, 1)));
+        }
+        return out;
+    }
+
+    public static List<P> p(int rules, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<P> out = new ArrayList<>(rules);
+        for (int i = 0; i < rules; i++) {
+            out.add(new P((double) random.nextInt(1, 100), month(i + 1, 2)));
+        }
+        return out;
+    }
+
+    public static List<K> k(int rules) {
+        List<K> out = new ArrayList<>(rules);
+        for (int i = 0; i < rules; i++) {
+            out.add(new K(month(i, 3)));
+        }
+        return out;
+    }
+
+    public static ReturnsRequest returnsRequest(int transactions, int rules, long seed) {
+        return new ReturnsRequest(30, 150_000.0, 5.5, q(rules, seed), p(rules, seed + 1), k(rules),
+                transactions(transactions, seed + 2));
+    }
+
+    public static FilterRequest filterRequest(int transactions, int rules, long seed) {
+        return new FilterRequest(q(rules, seed), p(rules, seed + 1), k(rules), UNCAPPED_WAGE,
+                transactions(transactions, seed + 2));
+    }
+
+    public static ValidatorRequest validatorRequest(int transactions, long seed) {
+        return new ValidatorRequest(UNCAPPED_WAGE, enriched(transactions, seed));
+    }
+
+    /** A period starting on the first of month {@code index} (mod 12) and spanning {@code months}. */
+    private static TemporalData month(int index, int months) {
+        LocalDateTime start = YEAR_START.plusMonths(index % 12);
+        return new TemporalData(start, start.plusMonths(months).minusSeconds(1));
+    }
+}
@@ -1,7 +1,5 @@
 package com.blackrock_hackathon.self_savings_planner.service;
 
-import com.blackrock_hackathon.self_savings_planner.dto.common.TemporalData;
-import com.blackrock_hackathon.self_savings_planner.dto.period.K;
 import com.blackrock_hackathon.self_savings_planner.dto.request.FilterRequest;
 import com.blackrock_hackathon.self_savings_planner.dto.request.TransactionInput;
 import com.blackrock_hackathon.self_savings_planner.dto.request.ValidatorRequest;
@@ -9,15 +7,13 @@ import com.blackrock_hackathon.self_savings_planner.dto.response.EnrichedTransac
 import com.blackrock_hackathon.self_savings_planner.dto.response.InvalidTransaction;
 import com.blackrock_hackathon.self_savings_planner.dto.response.ValidTransaction;
 import com.blackrock_hackathon.self_savings_planner.dto.response.ValidationResult;
+import com.blackrock_hackathon.self_savings_planner.service.RequestTrace.Stage;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Handles transaction parsing, validation, and filtering.
@@ -25,16 +21,41 @@ import java.util.Set;
 @Service
 public class TransactionService {
 
-    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private final RulePlanService rulePlanService;
+
+    public TransactionService(RulePlanService rulePlanService) {
+        this.rulePlanService = rulePlanService;
+    }
 
     /** Rounds each transaction amount up to the nearest 100 and computes the remnant. */
     public List<EnrichedTransaction> parseTransactions(List<TransactionInput> transactions) {
-        return transactions.stream()
-                .map(tx -> {
-                    double ceiling = Math.ceil(tx.amount() / 100.0) * 100.0;
-                    return new EnrichedTransaction(tx.date(), tx.amount(), ceiling, ceiling - tx.amount());
-                })
-                .toList();
+        RequestTrace trace = RequestTrace.current();
+        if (trace != null) trace.mark();
+        List<EnrichedTransaction> enriched = transactions.stream().map(TransactionService::enrich).toList();
+        if (trace != null) {
+            trace.lap(Stage.CEILING);
+            trace.cardinality("tx", transactions.size());
+        }
+        return enriched;
+    }
+
+    /** {@link #parseTransactions(List)} over transactions enriched one by one as {@code source} reads them. */
+    public List<EnrichedTransaction> parseTransactions(TransactionSource<TransactionInput> source) throws IOException {
+        RequestTrace trace = RequestTrace.current();
+        List<EnrichedTransaction> enriched = new ArrayList<>();
+        source.forEach(tx -> {
+            enriched.add(enrich(tx));
+            if (trace != null) trace.lap(Stage.CEILING);
+        });
+        if (trace != null) trace.cardinality("tx", enriched.size());
+        return enriched;
+    }
+
+    /** Ceiling and remnant of one transaction; a missing amount leaves both {@code null}. */
+    public static EnrichedTransaction enrich(TransactionInput tx) {
+        if (tx.amount() == null) return new EnrichedTransaction(tx.date(), null, null, null);
+        double ceiling = Math.ceil(tx.amount() / 100.0) * 100.0;
+        return new EnrichedTransaction(tx.date(), tx.amount(), ceiling, ceiling - tx.amount());
     }
 
     /** Validates transactions against the wage cap. */
@@ -44,14 +65,60 @@ public class TransactionService {
         return validate(wage, request.transactions(), null);
     }
 
+    /**
+     * {@link #validateTransactionWithWage(ValidatorRequest)} over transactions checked one by one as
+     * {@code source} reads them. A negative wage is reported without reading the source.
+     */
+    public ValidationResult validateTransactionWithWage(Double wage, TransactionSource<? extends Record> source)
+            throws IOException {
+        double wageValue = wage != null ? wage : 0.0;
+        if (wageValue < 0) return validate(wageValue, null, null);
+
+        List<ValidTransaction> valid = new ArrayList<>();
+        List<InvalidTransaction> invalid = new ArrayList<>();
+        RequestTrace trace = RequestTrace.current();
+        TransactionValidator validator = new TransactionValidator(BigDecimal.valueOf(wageValue), null, trace);
+        source.forEach(rec -> {
+            Record checked = validator.next(rec);
+            if (checked instanceof ValidTransaction vt) valid.add(vt);
+            else if (checked instanceof InvalidTransaction it) invalid.add(it);
+        });
+
+        if (trace != null) {
+            trace.cardinality("tx", valid.size() + invalid.size());
+            trace.cardinality("valid", valid.size());
+            trace.cardinality("invalid", invalid.size());
+        }
+        return new ValidationResult(valid, invalid);
+    }
+
     /** Validates transactions and marks K-period membership. */
     public ValidationResult validateTransactionWithWageAndPeriods(FilterRequest request) {
         if (request == null) return new ValidationResult(List.of(), List.of());
         double wage = request.wage() != null ? request.wage() : 0.0;
-        return validate(wage, request.transactions(), request.k());
+        RequestTrace trace = RequestTrace.current();
+        if (trace != null) trace.mark();
+        KIntervalIndex kIndex = rulePlanService.resolveKIndex(request.planId(), request.q(), request.p(), request.k());
+        if (trace != null) {
+            trace.lap(Stage.PLAN);
+            trace.cardinality("k_merged", kIndex.size());
+        }
+        return validate(wage, request.transactions(), kIndex);
     }
 
-    private ValidationResult validate(double wageValue, List<? extends Record> transactions, List<K> kPeriods) {
+    /**
+     * A {@link TransactionValidator} for the wage and K periods of {@code request}, for callers that
+     * stream transactions instead of listing them in the request. The request's own transactions
+     * are ignored.
+     */
+    public TransactionValidator validator(FilterRequest request) {
+        double wage = request.wage() != null ? request.wage() : 0.0;
+        if (wage < 0) throw new IllegalArgumentException("Wage must be >= 0");
+        KIntervalIndex kIndex = rulePlanService.resolveKIndex(request.planId(), request.q(), request.p(), request.k());
+        return new TransactionValidator(BigDecimal.valueOf(wage), kIndex, null);
+    }
+
+    private ValidationResult validate(double wageValue, List<? extends Record> transactions, KIntervalIndex kIndex) {
         BigDecimal wage = BigDecimal.valueOf(wageValue);
         if (wage.compareTo(BigDecimal.ZERO) < 0) {
             return new ValidationResult(List.of(),
@@ -63,70 +130,22 @@ public class TransactionService {
 
         List<ValidTransaction> valid = new ArrayList<>();
         List<InvalidTransaction> invalid = new ArrayList<>();
-        BigDecimal runningSum = BigDecimal.ZERO;
-        Set<String> seen = new HashSet<>();
+        RequestTrace trace = RequestTrace.current();
+        if (trace != null) trace.mark();
+        TransactionValidator validator = new TransactionValidator(wage, kIndex, trace);
 
         for (Record rec : transactions) {
-            LocalDateTime date;
-            Double amount;
-            double ceiling, remnant;
-
-            if (rec instanceof EnrichedTransaction et) {
-                date = et.date(); amount = et.amount(); ceiling = et.ceiling(); remnant = et.remnant();
-            } else if (rec instanceof TransactionInput ti) {
-                date = ti.date(); amount = ti.amount();
-                BigDecimal a = BigDecimal.valueOf(amount);
-                BigDecimal c = a.divide(HUNDRED, 0, RoundingMode.CEILING).multiply(HUNDRED);
-                ceiling = c.doubleValue(); remnant = c.subtract(a).doubleValue();
-            } else {
-                continue;
-            }
-
-            // Null checks
-            if (date == null) { invalid.add(new InvalidTransaction(null, amount, "Date must not be null")); continue; }
-            if (amount == null) { invalid.add(new InvalidTransaction(date, null, "Amount must not be null")); continue; }
-
-            // Duplicate check
-            String key = date + "|" + amount;
-            if (!seen.add(key)) { invalid.add(new InvalidTransaction(date, amount, "Duplicate transaction")); continue; }
-
-            BigDecimal amtBD = BigDecimal.valueOf(amount);
-
-            // Amount range check
-            if (amtBD.compareTo(BigDecimal.ZERO) < 0) { invalid.add(new InvalidTransaction(date, amount, "Amount must be >= 0")); continue; }
-            if (amtBD.compareTo(wage) > 0) { invalid.add(new InvalidTransaction(date, amount, "Amount exceeds wage")); continue; }
-
-            // Ceiling/remnant accuracy check
-            BigDecimal expectedCeiling = amtBD.divide(HUNDRED, 0, RoundingMode.CEILING).multiply(HUNDRED);
-            BigDecimal expectedRemnant = expectedCeiling.subtract(amtBD);
-            if (Math.abs(ceiling - expectedCeiling.doubleValue()) > 1e-9) {
-                invalid.add(new InvalidTransaction(date, amount, "Ceiling mismatch")); continue;
-            }
-            if (Math.abs(remnant - expectedRemnant.doubleValue()) > 1e-9) {
-                invalid.add(new InvalidTransaction(date, amount, "Remnant mismatch")); continue;
-            }
-
-            // Wage cap check
-            if (runningSum.add(amtBD).compareTo(wage) > 0) {
-                invalid.add(new InvalidTransaction(date, amount, "Total exceeds wage")); continue;
-            }
-
-            runningSum = runningSum.add(amtBD);
-            valid.add(new ValidTransaction(date, amount, ceiling, remnant, inKPeriod(date, kPeriods)));
+            Record checked = validator.next(rec);
+            if (checked instanceof ValidTransaction vt) valid.add(vt);
+            else if (checked instanceof InvalidTransaction it) invalid.add(it);
         }
 
-        return new ValidationResult(valid, invalid);
-    }
-
-    private boolean inKPeriod(LocalDateTime date, List<K> kPeriods) {
-        if (kPeriods == null) return false;
-        for (K k : kPeriods) {
-            TemporalData td = k.temporalData();
-            if (td != null && td.start() != null && td.end() != null
-                    && !date.isBefore(td.start()) && !date.isAfter(td.end())) {
-                return true;
-            }
+        if (trace != null) {
+            trace.lap(Stage.VALIDATE);
+            trace.cardinality("tx", transactions.size());
+            trace.cardinality("valid", valid.size());
+            trace.cardinality("invalid", invalid.size());
         }
-        return false;
+        return new ValidationResult(valid, invalid);
     }
 }
@@ -0,0 +1,25 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Transactions handed over one at a time as they are read, e.g. the rows of a streamed CSV upload,
+ * so they can be processed without first being collected into a list.
+ */
+@FunctionalInterface
+public interface TransactionSource<T> {
+
+    /** Passes every transaction to {@code sink}, in input order. */
+    void forEach(Consumer<? super T> sink) throws IOException;
+
+    /** This source, also adding each transaction to {@code copy}; {@code copy == null} returns it unchanged. */
+    default TransactionSource<T> copyingTo(List<? super T> copy) {
+        if (copy == null) return this;
+        return sink -> forEach(tx -> {
+            copy.add(tx);
+            sink.accept(tx);
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+import com.blackrock_hackathon.self_savings_planner.dto.request.TransactionInput;
+import com.blackrock_hackathon.self_savings_planner.dto.response.EnrichedTransaction;
+import com.blackrock_hackathon.self_savings_planner.dto.response.InvalidTransaction;
+import com.blackrock_hackathon.self_savings_planner.dto.response.ValidTransaction;
+import com.blackrock_hackathon.self_savings_planner.service.RequestTrace.Stage;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The checks of {@link TransactionService} applied one transaction at a time, so a caller can
+ * stream transactions through without holding them all.
+ *
+ * <p>The duplicate check and the running total against the wage span transactions, so they are
+ * kept here and transactions must arrive in order. Memory grows only with the set of distinct
+ * (date, amount) pairs seen by the duplicate check.
+ */
+public final class TransactionValidator {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final BigDecimal wage;
+    private final KIntervalIndex kIndex;
+    private final RequestTrace trace;
+    private final Set<Key> seen = new HashSet<>();
+    private BigDecimal runningSum = BigDecimal.ZERO;
+
+    /** {@code kIndex} and {@code trace} may be null. */
+    TransactionValidator(BigDecimal wage, KIntervalIndex kIndex, RequestTrace trace) {
+        this.wage = wage;
+        this.kIndex = kIndex;
+        this.trace = trace;
+    }
+
+    /**
+     * Checks the next transaction: a {@link TransactionInput} or an {@link EnrichedTransaction}.
+     *
+     * @return a {@link ValidTransaction} or an {@link InvalidTransaction}; {@code null} for any other record
+     */
+    public Record next(Record rec) {
+        LocalDateTime date;
+        Double amount;
+        Double ceiling, remnant;
+
+        if (rec instanceof EnrichedTransaction et) {
+            date = et.date(); amount = et.amount(); ceiling = et.ceiling(); remnant = et.remnant();
+        } else if (rec instanceof TransactionInput ti) {
+            date = ti.date(); amount = ti.amount(); ceiling = null; remnant = null;
+            if (trace != null) trace.lap(Stage.VALIDATE);
+            if (amount != null) {
+                BigDecimal a = BigDecimal.valueOf(amount);
+                BigDecimal c = a.divide(HUNDRED, 0, RoundingMode.CEILING).multiply(HUNDRED);
+                ceiling = c.doubleValue(); remnant = c.subtract(a).doubleValue();
+            }
+            if (trace != null) trace.lap(Stage.CEILING);
+        } else {
+            return null;
+        }
+
+        // Null checks
+        if (date == null) return new InvalidTransaction(null, amount, "Date must not be null");
+        if (amount == null) return new InvalidTransaction(date, null, "Amount must not be null");
+
+        // Duplicate check
+        if (!seen.add(new Key(date, amount))) return new InvalidTransaction(date, amount, "Duplicate transaction");
+
+        BigDecimal amtBD = BigDecimal.valueOf(amount);
+
+        // Amount range check
+        if (amtBD.compareTo(BigDecimal.ZERO) < 0) return new InvalidTransaction(date, amount, "Amount must be >= 0");
+        if (amtBD.compareTo(wage) > 0) return new InvalidTransaction(date, amount, "Amount exceeds wage");
+
+        // Ceiling/remnant accuracy check
+        BigDecimal expectedCeiling = amtBD.divide(HUNDRED, 0, RoundingMode.CEILING).multiply(HUNDRED);
+        BigDecimal expectedRemnant = expectedCeiling.subtract(amtBD);
+        if (ceiling == null || Math.abs(ceiling - expectedCeiling.doubleValue()) > 1e-9) {
+            return new InvalidTransaction(date, amount, "Ceiling mismatch");
+        }
+        if (remnant == null || Math.abs(remnant - expectedRemnant.doubleValue()) > 1e-9) {
+            return new InvalidTransaction(date, amount, "Remnant mismatch");
+        }
+
+        // Wage cap check
+        if (runningSum.add(amtBD).compareTo(wage) > 0) {
+            return new InvalidTransaction(date, amount, "Total exceeds wage");
+        }
+
+        runningSum = runningSum.add(amtBD);
+        if (trace != null) trace.lap(Stage.VALIDATE);
+        boolean inKPeriod = kIndex != null && kIndex.contains(date);
+        if (trace != null) trace.lap(Stage.K);
+        return new ValidTransaction(date, amount, ceiling, remnant, inKPeriod);
+    }
+
+    /** Same equality as the {@code date|amount} string it replaces, without building one per row. */
+    private record Key(LocalDateTime date, Double amount) {}
+}
@@ -0,0 +1,9 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+/** The referenced plan id was never uploaded or has been evicted from the plan cache. */
+public class UnknownPlanException extends RuntimeException {
+
+    public UnknownPlanException(String planId) {
+        super("Unknown rule plan: " + planId + " (upload it again via /plans)");
+    }
+}
@@ -0,0 +1,112 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+import com.blackrock_hackathon.self_savings_planner.config.WarmupProperties;
+import com.blackrock_hackathon.self_savings_planner.dto.request.FilterRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.ReturnsRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.TransactionInput;
+import com.blackrock_hackathon.self_savings_planner.dto.request.ValidatorRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Drives synthetic requests of realistic size through the services and the Jackson mapper
+ * until JIT compilation settles or the time budget runs out.
+ *
+ * <p>Runs as an {@link ApplicationRunner}, i.e. before Spring Boot publishes
+ * {@link ReadinessState#ACCEPTING_TRAFFIC}, so the readiness probe keeps traffic away while the
+ * hot paths are still interpreted or in C1 code.
+ */
+@Component
+@ConditionalOnProperty(prefix = "planner.warmup", name = "enabled", havingValue = "true")
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private final WarmupProperties properties;
+    private final TransactionService transactionService;
+    private final ReturnsService returnsService;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher publisher;
+    private final MeterRegistry registry;
+
+    public WarmupRunner(WarmupProperties properties, TransactionService transactionService,
+                        ReturnsService returnsService, ObjectMapper objectMapper,
+                        ApplicationEventPublisher publisher, MeterRegistry registry) {
+        this.properties = properties;
+        this.transactionService = transactionService;
+        this.returnsService = returnsService;
+        this.objectMapper = objectMapper;
+        this.publisher = publisher;
+        this.registry = registry;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        AvailabilityChangeEvent.publish(publisher, this, ReadinessState.REFUSING_TRAFFIC);
+
+        CompilationMXBean jit = ManagementFactory.getCompilationMXBean();
+        boolean canTrackJit = jit != null && jit.isCompilationTimeMonitoringSupported();
+
+        byte[] returnsJson = objectMapper.writeValueAsBytes(
+                SyntheticWorkload.returnsRequest(properties.transactions(), properties.rules(), 1));
+        byte[] filterJson = objectMapper.writeValueAsBytes(
+                SyntheticWorkload.filterRequest(properties.transactions(), properties.rules(), 2));
+        byte[] validatorJson = objectMapper.writeValueAsBytes(
+                SyntheticWorkload.validatorRequest(properties.transactions(), 3));
+        byte[] parseJson = objectMapper.writeValueAsBytes(
+                SyntheticWorkload.transactions(properties.transactions(), 4));
+
+        long start = System.nanoTime();
+        long deadline = start + properties.timeBudget().toNanos();
+        long lastCompileMs = canTrackJit ? jit.getTotalCompilationTime() : 0;
+        int rounds = 0, settled = 0;
+
+        while (System.nanoTime() < deadline && settled < properties.settledRounds()) {
+            round(returnsJson, filterJson, validatorJson, parseJson);
+            rounds++;
+            if (canTrackJit) {
+                long compileMs = jit.getTotalCompilationTime();
+                settled = compileMs - lastCompileMs <= properties.settledCompileMs() ? settled + 1 : 0;
+                lastCompileMs = compileMs;
+            }
+        }
+
+        Duration took = Duration.ofNanos(System.nanoTime() - start);
+        registry.timer("planner.warmup.duration").record(took);
+        log.info("JIT warm-up finished in {} ms after {} rounds (compilation {})", took.toMillis(), rounds,
+                !canTrackJit ? "not tracked" : settled >= properties.settledRounds() ? "settled" : "still active");
+
+        AvailabilityChangeEvent.publish(publisher, this, ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    /** One pass over every endpoint's path: deserialize → service → serialize. */
+    private void round(byte[] returnsJson, byte[] filterJson, byte[] validatorJson, byte[] parseJson) {
+        ReturnsRequest returns = objectMapper.readValue(returnsJson, ReturnsRequest.class);
+        objectMapper.writeValueAsBytes(returnsService.calculateNpsReturns(returns));
+        objectMapper.writeValueAsBytes(returnsService.calculateIndexReturns(returns));
+
+        FilterRequest filter = objectMapper.readValue(filterJson, FilterRequest.class);
+        objectMapper.writeValueAsBytes(transactionService.validateTransactionWithWageAndPeriods(filter));
+
+        ValidatorRequest validator = objectMapper.readValue(validatorJson, ValidatorRequest.class);
+        objectMapper.writeValueAsBytes(transactionService.validateTransactionWithWage(validator));
+
+        List<TransactionInput> parse = objectMapper.readValue(parseJson, new TypeReference<>() {});
+        objectMapper.writeValueAsBytes(transactionService.parseTransactions(parse));
+    }
+}
@@ -0,0 +1,157 @@
+package com.blackrock_hackathon.self_savings_planner.batch;
+
+import com.blackrock_hackathon.self_savings_planner.config.BatchProperties;
+import com.blackrock_hackathon.self_savings_planner.config.RulePlanProperties;
+import com.blackrock_hackathon.self_savings_planner.dto.request.FilterRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.ReturnsRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.TransactionInput;
+import com.blackrock_hackathon.self_savings_planner.dto.response.ValidationResult;
+import com.blackrock_hackathon.self_savings_planner.service.CsvTransactionReader;
+import com.blackrock_hackathon.self_savings_planner.service.ReturnsService;
+import com.blackrock_hackathon.self_savings_planner.service.RulePlanService;
+import com.blackrock_hackathon.self_savings_planner.service.SyntheticWorkload;
+import com.blackrock_hackathon.self_savings_planner.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchRunnerTest {
+
+    private static final String RULES = """
+            q,0,2023-07-01 00:00:00,2023-07-31 23:59:59
+            p,25,2023-10-01 08:00:00,2023-12-31 19:59:59
+            k,2023-01-01 00:00:00,2023-06-30 23:59:59
+            k,2023-01-01 00:00:00,2023-12-31 23:59:59
+            """;
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper mapper = JsonMapper.builder().build();
+    private TransactionService transactionService;
+    private ReturnsService returnsService;
+
+    @BeforeEach
+    void setUp() {
+        RulePlanService rulePlanService = new RulePlanService(new RulePlanProperties(100));
+        transactionService = new TransactionService(rulePlanService);
+        returnsService = new ReturnsService(rulePlanService);
+    }
+
+    @Test
+    @DisplayName("returns per file match the service, and a malformed file does not stop the run")
+    void returnsAcrossFiles() throws Exception {
+        List<TransactionInput> jan = SyntheticWorkload.transactions(20_000, 1);
+        List<TransactionInput> mar = SyntheticWorkload.transactions(5_000, 3);
+        Path janFile = write("jan.csv", jan);
+        Path febFile = write("feb.csv", SyntheticWorkload.transactions(20_000, 2));
+        Path marFile = write("mar.csv", mar);
+        corrupt(febFile, 15_000);
+
+        List<JsonNode> lines = run(BatchProperties.Mode.NPS, 50_000.0, janFile, febFile, marFile);
+
+        assertEquals(3, lines.size());
+        assertEquals(mapper.valueToTree(returnsService.calculateNpsReturns(request(jan))), lines.get(0).get("result"));
+        assertEquals(20_000, lines.get(0).get("rows").asLong());
+        assertTrue(lines.get(1).get("error").asString().startsWith("CSV line 15001:"), lines.get(1).toString());
+        assertNull(lines.get(1).get("result"));
+        assertEquals(mapper.valueToTree(returnsService.calculateNpsReturns(request(mar))), lines.get(2).get("result"));
+    }
+
+    @Test
+    @DisplayName("validation writes one line per row, in file order, then the file's counts")
+    void validateRows() throws Exception {
+        List<TransactionInput> source = SyntheticWorkload.transactions(10_000, 5);
+        Path file = write("jan.csv", source);
+
+        List<JsonNode> lines = run(BatchProperties.Mode.VALIDATE, 500_000.0, file);
+
+        ValidationResult expected = transactionService.validateTransactionWithWageAndPeriods(
+                new FilterRequest(rules().q(), rules().p(), rules().k(), 500_000.0, source));
+        List<JsonNode> rows = lines.subList(0, lines.size() - 1);
+        assertEquals(source.size(), rows.size());
+        assertEquals(mapper.valueToTree(expected.validTransactions()), transactions(rows, "valid"));
+        assertEquals(mapper.valueToTree(expected.invalidTransactions()), transactions(rows, "invalid"));
+
+        JsonNode summary = lines.getLast();
+        assertEquals(expected.validTransactions().size(), summary.get("valid").asLong());
+        assertEquals(expected.invalidTransactions().size(), summary.get("invalid").asLong());
+        assertNull(summary.get("error"));
+    }
+
+    @Test
+    @DisplayName("a mode that checks the wage refuses to start without one")
+    void wageRequired() throws Exception {
+        Path file = write("jan.csv", SyntheticWorkload.transactions(100, 5));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> run(BatchProperties.Mode.VALIDATE, null, file));
+        assertEquals("planner.batch.wage must be positive in VALIDATE mode", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> run(BatchProperties.Mode.NPS, 0.0, file));
+        assertEquals(101, run(BatchProperties.Mode.PARSE, null, file).size());
+    }
+
+    // helpers
+
+    /** Runs the batch with 16 KB slices on 3 threads and returns the output lines as JSON. */
+    private List<JsonNode> run(BatchProperties.Mode mode, Double wage, Path... input) throws Exception {
+        Path rules = Files.writeString(dir.resolve("rules.csv"), RULES);
+        Path output = dir.resolve("out.ndjson");
+        BatchProperties properties = new BatchProperties(List.of(input), output, mode, rules, wage, 29, 5.5, 3,
+                DataSize.ofKilobytes(16));
+
+        new BatchRunner(properties, transactionService, returnsService, mapper).run(null);
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(output)) lines.add(mapper.readTree(line));
+        return lines;
+    }
+
+    private ReturnsRequest rules() {
+        return CsvTransactionReader.readReturnsRequest(
+                ByteBuffer.wrap(RULES.getBytes(StandardCharsets.US_ASCII)), 29, 50_000.0, 5.5);
+    }
+
+    private ReturnsRequest request(List<TransactionInput> transactions) {
+        ReturnsRequest rules = rules();
+        return new ReturnsRequest(29, 50_000.0, 5.5, rules.q(), rules.p(), rules.k(), transactions);
+    }
+
+    private JsonNode transactions(List<JsonNode> rows, String status) {
+        List<JsonNode> out = new ArrayList<>();
+        for (JsonNode row : rows) {
+            if (row.get("status").asString().equals(status)) out.add(row.get("transaction"));
+        }
+        return mapper.valueToTree(out);
+    }
+
+    private Path write(String name, List<TransactionInput> rows) throws IOException {
+        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        StringBuilder sb = new StringBuilder("date,amount\n");
+        for (TransactionInput tx : rows) sb.append(fmt.format(tx.date())).append(',').append(tx.amount()).append('\n');
+        return Files.writeString(dir.resolve(name), sb, StandardCharsets.US_ASCII);
+    }
+
+    /** Replaces the amount on 0-based line {@code line} (line 0 is the header). */
+    private static void corrupt(Path file, int line) throws IOException {
+        List<String> lines = new ArrayList<>(Files.readAllLines(file));
+        lines.set(line, lines.get(line).replaceFirst(",.*", ",12x"));
+        Files.write(file, lines, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,100 @@
+package com.blackrock_hackathon.self_savings_planner.batch;
+
+import com.blackrock_hackathon.self_savings_planner.dto.request.TransactionInput;
+import com.blackrock_hackathon.self_savings_planner.service.CsvFormatException;
+import com.blackrock_hackathon.self_savings_planner.service.SyntheticWorkload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedCsvSplitterTest {
+
+    @TempDir
+    Path dir;
+
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("slices end on line boundaries and cover the whole file")
+    void slicesAreRecordAligned() throws IOException {
+        Path file = write(50_000);
+        byte[] bytes = Files.readAllBytes(file);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<long[]> slices = MappedCsvSplitter.slices(channel, bytes.length / 8);
+
+            assertTrue(slices.size() > 1);
+            assertEquals(0, slices.getFirst()[0]);
+            assertEquals(bytes.length, slices.getLast()[1]);
+            for (int i = 1; i < slices.size(); i++) {
+                assertEquals(slices.get(i - 1)[1], slices.get(i)[0]);
+                assertEquals('\n', bytes[(int) slices.get(i)[0] - 1]);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("parallel read returns every row in file order")
+    void parallelReadKeepsOrder() throws Exception {
+        List<TransactionInput> source = SyntheticWorkload.transactions(50_000, 11);
+        Path file = write(source);
+
+        List<TransactionInput> rows = new ArrayList<>();
+        MappedCsvSplitter.read(file, 16 * 1024, 3, pool, slice -> slice, rows::addAll);
+
+        assertEquals(source, rows);
+    }
+
+    @Test
+    @DisplayName("a malformed row in a later slice reports its line within the whole file")
+    void absoluteLineNumbers() throws Exception {
+        Path file = write(50_000);
+        List<String> lines = new ArrayList<>(Files.readAllLines(file));
+        lines.set(40_000, "2023-01-01 00:00:00,abc");
+        Files.write(file, lines, StandardCharsets.US_ASCII);
+
+        var e = assertThrows(CsvFormatException.class,
+                () -> MappedCsvSplitter.read(file, 16 * 1024, 3, pool, List::size, n -> {}));
+
+        assertEquals(40_001, e.getLine());
+    }
+
+    // helpers
+
+    private Path write(int rows) throws IOException {
+        return write(SyntheticWorkload.transactions(rows, 11));
+    }
+
+    private Path write(List<TransactionInput> rows) throws IOException {
+        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        StringBuilder sb = new StringBuilder("date,amount\n");
+        for (TransactionInput tx : rows) sb.append(fmt.format(tx.date())).append(',').append(tx.amount()).append('\n');
+        return Files.writeString(dir.resolve("tx.csv"), sb, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,140 @@
+package com.blackrock_hackathon.self_savings_planner.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BodyEncoderTest {
+
+    @Test
+    @DisplayName("output decodes back to the input, with bytes and encode time counted")
+    void roundTrip(TestReporter reporter) throws IOException {
+        byte[] json = repetitiveJson(20_000);
+        for (ContentCoding coding : ContentCoding.values()) {
+            ByteArrayOutputStream target = new ByteArrayOutputStream();
+            BodyEncoder encoder = new BodyEncoder(coding, target, 1);
+
+            for (int off = 0; off < json.length; off += 8192) {
+                encoder.write(json, off, Math.min(8192, json.length - off));
+            }
+            encoder.finish();
+
+            assertArrayEquals(json, decode(coding, target.toByteArray()), coding.token());
+            assertEquals(json.length, encoder.rawBytes());
+            assertEquals(target.size(), encoder.encodedBytes());
+            assertTrue(encoder.encodeNanos() > 0);
+            reporter.publishEntry(coding.token() + ".ratio", String.format("%.1f", (double) json.length / target.size()));
+        }
+    }
+
+    @Test
+    @DisplayName("compressed blocks reach the target before the body ends, and the target is not closed")
+    void streams() throws IOException {
+        byte[] json = repetitiveJson(50_000);
+        for (ContentCoding coding : ContentCoding.values()) {
+            boolean[] closed = new boolean[1];
+            ByteArrayOutputStream target = new ByteArrayOutputStream() {
+                @Override
+                public void close() {
+                    closed[0] = true;
+                }
+            };
+            BodyEncoder encoder = new BodyEncoder(coding, target, 6);
+
+            encoder.write(json, 0, json.length);
+            int beforeFinish = target.size();
+            encoder.finish();
+
+            assertTrue(beforeFinish > 10, coding.token() + ": nothing written before finish");
+            assertFalse(closed[0], coding.token());
+            assertArrayEquals(json, decode(coding, target.toByteArray()));
+        }
+    }
+
+    @Test
+    @DisplayName("time spent writing to the target is not counted as encode time")
+    void excludesTargetWrites() throws IOException {
+        OutputStream slow = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        BodyEncoder encoder = new BodyEncoder(ContentCoding.GZIP, slow, 1);
+
+        encoder.write(new byte[1000], 0, 1000);
+        encoder.finish();
+
+        assertTrue(encoder.encodeNanos() < 20_000_000, "encode time includes the slow writes");
+    }
+
+    @Test
+    @DisplayName("gzip flush emits a decodable prefix")
+    void flush() throws IOException {
+        byte[] head = "{\"validTransactions\":[".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        BodyEncoder encoder = new BodyEncoder(ContentCoding.GZIP, target, 1);
+
+        encoder.write(head, 0, head.length);
+        encoder.flush();
+        byte[] prefix = new byte[head.length];
+        int n = ContentCoding.GZIP.decoder(new ByteArrayInputStream(target.toByteArray()))
+                .readNBytes(prefix, 0, prefix.length);
+
+        assertEquals(head.length, n);
+        assertArrayEquals(head, prefix);
+        encoder.release();
+    }
+
+    @Test
+    @DisplayName("an empty body still produces a valid stream; release after finish writes nothing")
+    void empty() throws IOException {
+        for (ContentCoding coding : ContentCoding.values()) {
+            ByteArrayOutputStream target = new ByteArrayOutputStream();
+            BodyEncoder encoder = new BodyEncoder(coding, target, 1);
+            encoder.finish();
+            int size = target.size();
+            encoder.release();
+
+            assertEquals(size, target.size());
+            assertEquals(0, decode(coding, target.toByteArray()).length, coding.token());
+        }
+    }
+
+    // helpers
+
+    private static byte[] repetitiveJson(int rows) {
+        StringBuilder sb = new StringBuilder("{\"validTransactions\":[");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"date\":\"2023-").append(String.format("%02d", i % 12 + 1))
+                    .append("-15 10:00:00\",\"amount\":").append(100 + i % 900)
+                    .append(",\"ceiling\":").append(200 + i % 900 / 100 * 100)
+                    .append(",\"remnant\":").append(i % 100).append(",\"inKPeriod\":true}");
+        }
+        return sb.append("],\"invalidTransactions\":[]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] decode(ContentCoding coding, byte[] encoded) throws IOException {
+        try (InputStream in = coding.decoder(new ByteArrayInputStream(encoded))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.blackrock_hackathon.self_savings_planner.controller;
+
+import com.blackrock_hackathon.self_savings_planner.config.CompressionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionFilterTest {
+
+    private static final CompressionProperties PROPERTIES = new CompressionProperties(true, List.of("zstd", "gzip"),
+            DataSize.ofKilobytes(1), 1, List.of("application/json"), DataSize.ofMegabytes(64));
+
+    @Test
+    @DisplayName("the response coding is the one the client ranks highest, ties going to the server's order")
+    void negotiate() {
+        List<ContentCoding> offered = List.of(ContentCoding.ZSTD, ContentCoding.GZIP);
+
+        assertEquals(ContentCoding.ZSTD, ContentCoding.negotiate("gzip, deflate, br, zstd", offered));
+        assertEquals(ContentCoding.GZIP, ContentCoding.negotiate("zstd;q=0.5, gzip", offered));
+        assertEquals(ContentCoding.GZIP, ContentCoding.negotiate("gzip", offered));
+        assertEquals(ContentCoding.ZSTD, ContentCoding.negotiate("*", offered));
+        assertEquals(ContentCoding.GZIP, ContentCoding.negotiate("zstd;q=0, *", offered));
+        assertEquals(ContentCoding.GZIP, ContentCoding.negotiate("gzip, zstd", List.of(ContentCoding.GZIP)));
+        assertNull(ContentCoding.negotiate("gzip;q=0, zstd;q=0", offered));
+        assertNull(ContentCoding.negotiate("br, identity", offered));
+        assertNull(ContentCoding.negotiate(null, offered));
+    }
+
+    @Test
+    @DisplayName("a large response is compressed with the negotiated coding and recorded per encoding")
+    void compressesResponse() throws Exception {
+        byte[] body = GzipDecoderTest.body(5_000);
+        for (ContentCoding coding : ContentCoding.values()) {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/transactions/parse");
+            request.addHeader("Accept-Encoding", coding.token());
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            new CompressionFilter(PROPERTIES, registry).doFilter(request, response,
+                    new MockFilterChain(new HttpServlet() {
+                        @Override
+                        protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                            res.setContentType("application/json");
+                            res.getOutputStream().write(body);
+                        }
+                    }));
+
+            assertEquals(coding.token(), response.getHeader("Content-Encoding"));
+            assertEquals("Accept-Encoding", response.getHeader("Vary"));
+            try (InputStream in = coding.decoder(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+                assertArrayEquals(body, in.readAllBytes());
+            }
+            assertEquals(1, registry.get("planner.compression.ratio")
+                    .tags("direction", "response", "encoding", coding.token()).summary().count());
+        }
+    }
+
+    @Test
+    @DisplayName("gzip and zstd request bodies are decoded on blocking reads")
+    void blockingRead() throws Exception {
+        byte[] body = GzipDecoderTest.body(20_000);
+        for (ContentCoding coding : ContentCoding.values()) {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/transactions/parse");
+            request.addHeader("Content-Encoding", coding.token());
+            request.setContent(encode(coding, body));
+            byte[][] read = new byte[1][];
+
+            new CompressionFilter(PROPERTIES, registry).doFilter(request, new MockHttpServletResponse(),
+                    new MockFilterChain(new HttpServlet() {
+                        @Override
+                        protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                            assertNull(req.getHeader("Content-Encoding"));
+                            read[0] = req.getInputStream().readAllBytes();
+                        }
+                    }));
+
+            assertArrayEquals(body, read[0], coding.token());
+            assertEquals(1, registry.get("planner.compression.time")
+                    .tags("direction", "request", "encoding", coding.token()).timer().count());
+        }
+    }
+
+    @Test
+    @DisplayName("a corrupt body fails the blocking read with an IOException")
+    void corruptBlockingRead() {
+        byte[] badCrc = GzipDecoderTest.gzip(GzipDecoderTest.body(5_000));
+        badCrc[badCrc.length - 8] ^= 1;
+        byte[] badZstd = ZstdDecoderTest.zstd(GzipDecoderTest.body(5_000));
+        badZstd[badZstd.length / 2] ^= 0x55;
+
+        assertThrows(IOException.class, () -> readThroughFilter(ContentCoding.GZIP, badCrc));
+        assertThrows(IOException.class, () -> readThroughFilter(ContentCoding.ZSTD, badZstd));
+    }
+
+    @Test
+    @DisplayName("other request encodings get 415 listing the accepted ones")
+    void unsupportedEncoding() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/transactions/parse");
+        request.addHeader("Content-Encoding", "br");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new CompressionFilter(PROPERTIES, new SimpleMeterRegistry()).doFilter(request, response, new MockFilterChain());
+
+        assertEquals(415, response.getStatus());
+        assertEquals("zstd, gzip", response.getHeader("Accept-Encoding"));
+    }
+
+    @Test
+    @DisplayName("gzip and zstd request bodies are decoded for a ReadListener as compressed chunks arrive")
+    void nonBlockingRead() throws Exception {
+        for (ContentCoding coding : ContentCoding.values()) {
+            nonBlockingRead(coding);
+        }
+    }
+
+    private static void nonBlockingRead(ContentCoding coding) throws Exception {
+        byte[] body = GzipDecoderTest.body(20_000);
+        NonBlockingInput input = new NonBlockingInput();
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/transactions/parse") {
+            @Override
+            public ServletInputStream getInputStream() {
+                return input;
+            }
+        };
+        request.addHeader("Content-Encoding", coding.token());
+        request.setAsyncSupported(true);
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        boolean[] allRead = new boolean[1];
+
+        new CompressionFilter(PROPERTIES, new SimpleMeterRegistry()).doFilter(request, new MockHttpServletResponse(),
+                new MockFilterChain(new HttpServlet() {
+                    @Override
+                    protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                        req.startAsync();
+                        ServletInputStream in = req.getInputStream();
+                        in.setReadListener(new ReadListener() {
+                            @Override
+                            public void onDataAvailable() throws IOException {
+                                byte[] buf = new byte[1000];
+                                while (in.isReady() && !in.isFinished()) {
+                                    int n = in.read(buf);
+                                    if (n > 0) read.write(buf, 0, n);
+                                }
+                            }
+
+                            @Override
+                            public void onAllDataRead() {
+                                allRead[0] = true;
+                            }
+
+                            @Override
+                            public void onError(Throwable t) {
+                                fail(t);
+                            }
+                        });
+                    }
+                }));
+        byte[] encoded = encode(coding, body);
+        for (int off = 0; off < encoded.length; off += 700) {
+            input.arrive(Arrays.copyOfRange(encoded, off, Math.min(encoded.length, off + 700)));
+        }
+        input.end();
+
+        assertArrayEquals(body, read.toByteArray(), coding.token());
+        assertTrue(allRead[0]);
+    }
+
+    @Test
+    @DisplayName("the body can be reset while held back, not once compressed bytes are written")
+    void reset() throws IOException {
+        CompressingResponseWrapper wrapper = wrapper(new MockHttpServletResponse());
+
+        wrapper.getOutputStream().write(new byte[100]);
+        wrapper.resetBuffer();
+        assertFalse(wrapper.isCommitted());
+        wrapper.getOutputStream().write(new byte[5000]);
+
+        assertTrue(wrapper.isCommitted());
+        assertThrows(IllegalStateException.class, wrapper::resetBuffer);
+        assertThrows(IllegalStateException.class, wrapper::reset);
+        wrapper.release();
+    }
+
+    @Test
+    @DisplayName("a WriteListener goes to the container and gets the body uncompressed")
+    void nonBlockingWrite() throws IOException {
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        WriteListener[] registered = new WriteListener[1];
+        MockHttpServletResponse response = new MockHttpServletResponse() {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return new ServletOutputStream() {
+                    @Override
+                    public void write(int b) {
+                        sent.write(b);
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        registered[0] = listener;
+                    }
+                };
+            }
+        };
+        CompressingResponseWrapper wrapper = wrapper(response);
+        WriteListener listener = new WriteListener() {
+            @Override
+            public void onWritePossible() {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        };
+
+        wrapper.getOutputStream().write(new byte[100]);
+        wrapper.getOutputStream().setWriteListener(listener);
+        wrapper.getOutputStream().write(new byte[5000]);
+        wrapper.finish();
+
+        assertSame(listener, registered[0]);
+        assertEquals(5100, sent.size());
+        assertNull(wrapper.encoder());
+        assertNull(response.getHeader("Content-Encoding"));
+    }
+
+    // helpers
+
+    private static CompressingResponseWrapper wrapper(MockHttpServletResponse response) {
+        response.setContentType("application/json");
+        return new CompressingResponseWrapper(response, ContentCoding.GZIP, (int) PROPERTIES.minResponseSize().toBytes(),
+                1, List.of(MediaType.APPLICATION_JSON));
+    }
+
+    private static byte[] encode(ContentCoding coding, byte[] body) {
+        return coding == ContentCoding.GZIP ? GzipDecoderTest.gzip(body) : ZstdDecoderTest.zstd(body);
+    }
+
+    private static void readThroughFilter(ContentCoding coding, byte[] encoded) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/transactions/parse");
+        request.addHeader("Content-Encoding", coding.token());
+        request.setContent(encoded);
+        new CompressionFilter(PROPERTIES, new SimpleMeterRegistry()).doFilter(request, new MockHttpServletResponse(),
+                new MockFilterChain(new HttpServlet() {
+                    @Override
+                    protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                        req.getInputStream().readAllBytes();
+                    }
+                }));
+    }
+
+    /** A container input stream in non-blocking mode, fed by the test. */
+    private static final class NonBlockingInput extends ServletInputStream {
+
+        private final Queue<byte[]> chunks = new ArrayDeque<>();
+        private ReadListener listener;
+        private boolean ended;
+
+        void arrive(byte[] chunk) throws IOException {
+            chunks.add(chunk);
+            listener.onDataAvailable();
+        }
+
+        void end() throws IOException {
+            ended = true;
+            listener.onAllDataRead();
+        }
+
+        @Override
+        public int read() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (chunks.isEmpty()) {
+                if (ended) return -1;
+                throw new IllegalStateException("read while not ready");
+            }
+            byte[] chunk = chunks.remove();
+            assertTrue(chunk.length <= len);
+            System.arraycopy(chunk, 0, b, off, chunk.length);
+            return chunk.length;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return ended && chunks.isEmpty();
+        }
+
+        @Override
+        public boolean isReady() {
+            return !chunks.isEmpty();
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            this.listener = listener;
+        }
+    }
+}
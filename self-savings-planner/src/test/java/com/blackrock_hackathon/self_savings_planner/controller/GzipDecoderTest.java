@@ -0,0 +1,137 @@
+package com.blackrock_hackathon.self_savings_planner.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GzipDecoderTest {
+
+    @Test
+    @DisplayName("decodes a body fed one byte at a time")
+    void byteByByte() throws IOException {
+        byte[] body = body(30_000);
+        byte[] gz = gzip(body);
+        GzipDecoder decoder = new GzipDecoder();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[512];
+
+        for (int i = 0; i <= gz.length; i++) {
+            if (i < gz.length) decoder.feed(gz, i, 1);
+            else decoder.endOfInput();
+            int n;
+            while ((n = decoder.decode(buf, 0, buf.length)) > 0) out.write(buf, 0, n);
+            assertEquals(i < gz.length ? 0 : -1, n);
+        }
+
+        assertArrayEquals(body, out.toByteArray());
+        assertTrue(decoder.decodeNanos() > 0);
+    }
+
+    @Test
+    @DisplayName("concatenated members and optional header fields decode as one body")
+    void membersAndHeaderFields() throws IOException {
+        byte[] first = body(1_000);
+        byte[] named = gzip(body(2_000));
+        byte[] withName = new byte[named.length + 9];
+        System.arraycopy(named, 0, withName, 0, 10);
+        withName[3] = 8;  // FNAME
+        System.arraycopy("big.json\0".getBytes(StandardCharsets.US_ASCII), 0, withName, 10, 9);
+        System.arraycopy(named, 10, withName, 19, named.length - 10);
+
+        byte[] both = concat(gzip(first), withName);
+
+        assertArrayEquals(concat(first, body(2_000)), decode(both));
+    }
+
+    @Test
+    @DisplayName("a trailer whose CRC does not match the body fails")
+    void crcMismatch() {
+        byte[] gz = gzip(body(5_000));
+        gz[gz.length - 8] ^= 1;
+
+        ZipException e = assertThrows(ZipException.class, () -> decode(gz));
+        assertEquals("Corrupt gzip trailer (CRC)", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("a trailer whose size does not match the body fails")
+    void sizeMismatch() {
+        byte[] gz = gzip(body(5_000));
+        gz[gz.length - 4] ^= 1;
+
+        ZipException e = assertThrows(ZipException.class, () -> decode(gz));
+        assertEquals("Corrupt gzip trailer (size)", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("a member cut short in its header, body or trailer fails at the end of input")
+    void truncatedMember() {
+        byte[] first = gzip(body(1_000));
+        byte[] second = gzip(body(2_000));
+
+        for (int keep : new int[] {0, 5, 10, second.length / 2, second.length - 8, second.length - 1}) {
+            byte[] cut = concat(first, Arrays.copyOf(second, keep));
+            if (keep == 0) {
+                assertArrayEquals(body(1_000), assertDoesNotThrow(() -> decode(cut)));
+            } else {
+                assertThrows(EOFException.class, () -> decode(cut), "kept " + keep + " bytes");
+            }
+        }
+        assertThrows(EOFException.class, () -> decode(new byte[0]));
+    }
+
+    @Test
+    @DisplayName("non-gzip input and trailing bytes after a member fail")
+    void notGzip() {
+        assertThrows(ZipException.class, () -> decode("{\"q\":[]}".getBytes(StandardCharsets.US_ASCII)));
+        assertThrows(ZipException.class, () -> decode(concat(gzip(body(10)), "{}".getBytes(StandardCharsets.US_ASCII))));
+    }
+
+    // helpers
+
+    private static byte[] decode(byte[] gz) throws IOException {
+        GzipDecoder decoder = new GzipDecoder();
+        decoder.feed(gz, 0, gz.length);
+        decoder.endOfInput();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        for (int n; (n = decoder.decode(buf, 0, buf.length)) >= 0; ) out.write(buf, 0, n);
+        decoder.end();
+        return out.toByteArray();
+    }
+
+    static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    static byte[] body(int rows) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"date\":\"2023-10-12 20:15:30\",\"amount\":").append(250 + i % 977).append('}');
+        }
+        return sb.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] concat(byte[] a, byte[] b) {
+        byte[] out = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+}
@@ -0,0 +1,88 @@
+package com.blackrock_hackathon.self_savings_planner.controller;
+
+import com.blackrock_hackathon.self_savings_planner.config.TraceProperties;
+import com.blackrock_hackathon.self_savings_planner.service.RequestTrace;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTimingFilterTest {
+
+    @Test
+    @DisplayName("the trace header is ignored unless tracing is enabled")
+    void disabledByDefault() throws Exception {
+        MockHttpServletResponse response = run(new TraceProperties(false, null, DataSize.ofMegabytes(1)), "1", 100);
+
+        assertNull(response.getHeader(ServerTimingFilter.SERVER_TIMING));
+        assertEquals(100, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    @DisplayName("with a secret configured, only a matching header value is traced")
+    void secret() throws Exception {
+        TraceProperties properties = new TraceProperties(true, "s3cret", DataSize.ofMegabytes(1));
+
+        assertNull(run(properties, "1", 100).getHeader(ServerTimingFilter.SERVER_TIMING));
+        assertNotNull(run(properties, "s3cret", 100).getHeader(ServerTimingFilter.SERVER_TIMING));
+    }
+
+    @Test
+    @DisplayName("a body larger than the buffer is passed on early, still with the header and intact")
+    void bodyOverLimit() throws Exception {
+        MockHttpServletResponse response = run(new TraceProperties(true, null, DataSize.ofBytes(1024)), "1", 64_000);
+
+        assertTrue(response.getHeader(ServerTimingFilter.SERVER_TIMING).contains("total;dur="));
+        assertTrue(((Recording) response).committedInChain, "body was buffered whole");
+        assertFalse(((Recording) response).headerAfterCommit);
+        assertArrayEquals(body(64_000), response.getContentAsByteArray());
+    }
+
+    // helpers
+
+    private static MockHttpServletResponse run(TraceProperties properties, String header, int size) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/transactions/parse");
+        request.addHeader(RequestTrace.HEADER, header);
+        Recording response = new Recording();
+        new ServerTimingFilter(properties).doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                byte[] body = body(size);
+                for (int off = 0; off < body.length; off += 4096) {
+                    res.getOutputStream().write(body, off, Math.min(4096, body.length - off));
+                }
+                response.committedInChain = res.isCommitted();
+            }
+        }));
+        return response;
+    }
+
+    /** Notes whether the body reached the client before the chain returned, and any header set too late. */
+    private static final class Recording extends MockHttpServletResponse {
+
+        boolean headerAfterCommit;
+        boolean committedInChain;
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (name.equals(ServerTimingFilter.SERVER_TIMING) && isCommitted()) headerAfterCommit = true;
+            super.setHeader(name, value);
+        }
+    }
+
+    private static byte[] body(int size) {
+        byte[] body = new byte[size];
+        Arrays.fill(body, (byte) 'x');
+        return body;
+    }
+}
@@ -0,0 +1,89 @@
+package com.blackrock_hackathon.self_savings_planner.controller;
+
+import io.airlift.compress.zstd.ZstdOutputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import static com.blackrock_hackathon.self_savings_planner.controller.GzipDecoderTest.body;
+import static com.blackrock_hackathon.self_savings_planner.controller.GzipDecoderTest.concat;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZstdDecoderTest {
+
+    @Test
+    @DisplayName("decodes a body fed one byte at a time")
+    void byteByByte() throws IOException {
+        byte[] body = body(30_000);
+        byte[] zst = zstd(body);
+        ZstdDecoder decoder = new ZstdDecoder();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[512];
+
+        for (int i = 0; i <= zst.length; i++) {
+            if (i < zst.length) decoder.feed(zst, i, 1);
+            else decoder.endOfInput();
+            int n;
+            while ((n = decoder.decode(buf, 0, buf.length)) > 0) out.write(buf, 0, n);
+            assertEquals(i < zst.length ? 0 : -1, n);
+        }
+
+        assertArrayEquals(body, out.toByteArray());
+        assertTrue(decoder.decodeNanos() > 0);
+    }
+
+    @Test
+    @DisplayName("concatenated frames decode as one body")
+    void frames() throws IOException {
+        byte[] both = concat(zstd(body(1_000)), zstd(body(2_000)));
+
+        assertArrayEquals(concat(body(1_000), body(2_000)), decode(both));
+    }
+
+    @Test
+    @DisplayName("a frame cut short fails at the end of input")
+    void truncated() {
+        byte[] zst = zstd(body(5_000));
+
+        for (int keep : new int[] {3, zst.length / 2, zst.length - 1}) {
+            assertThrows(EOFException.class, () -> decode(Arrays.copyOf(zst, keep)), "kept " + keep + " bytes");
+        }
+    }
+
+    @Test
+    @DisplayName("corrupt and non-zstd input fail")
+    void corrupt() {
+        byte[] zst = zstd(body(5_000));
+        zst[zst.length / 2] ^= 0x55;
+
+        assertThrows(IOException.class, () -> decode(zst));
+        assertThrows(IOException.class, () -> decode(body(10)));
+    }
+
+    // helpers
+
+    private static byte[] decode(byte[] zst) throws IOException {
+        ZstdDecoder decoder = new ZstdDecoder();
+        decoder.feed(zst, 0, zst.length);
+        decoder.endOfInput();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        for (int n; (n = decoder.decode(buf, 0, buf.length)) >= 0; ) out.write(buf, 0, n);
+        return out.toByteArray();
+    }
+
+    static byte[] zstd(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZstdOutputStream zst = new ZstdOutputStream(out)) {
+            zst.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
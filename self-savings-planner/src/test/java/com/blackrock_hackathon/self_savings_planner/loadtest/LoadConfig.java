@@ -0,0 +1,58 @@
+package com.blackrock_hackathon.self_savings_planner.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load-test settings, read from {@code -Dload.*} system properties.
+ *
+ * @param rate         requests per second across all endpoints (fixed arrival rate)
+ * @param duration     measured run length
+ * @param warmup       unmeasured run before it, at the same rate
+ * @param mix          relative weight per endpoint: parse, validator, filter, nps, index, performance
+ * @param transactions payload sizes; every endpoint with a body is driven at each size
+ * @param rules        Q, P and K periods per filter/returns payload
+ * @param output       directory for the JSON report and the {@code .hgrm} percentile files
+ * @param label        name of this run, e.g. a commit id; used as the report file name
+ * @param slowClients  extra connections, alongside the measured traffic, that each send {@code /returns/nps}
+ *                     requests back to back and trickle every body over {@code trickle}; 0 for none
+ * @param trickle      time a slow client takes to send one request body
+ */
+record LoadConfig(double rate, Duration duration, Duration warmup, Map<String, Integer> mix,
+                  List<Integer> transactions, int rules, Path output, String label, int slowClients,
+                  Duration trickle) {
+
+    static LoadConfig fromSystemProperties() {
+        return new LoadConfig(
+                Double.parseDouble(System.getProperty("load.rate", "200")),
+                Duration.parse("PT" + System.getProperty("load.duration", "30s")),
+                Duration.parse("PT" + System.getProperty("load.warmup", "10s")),
+                weights(System.getProperty("load.mix", "parse=2,validator=2,filter=2,nps=2,index=1,performance=1")),
+                sizes(System.getProperty("load.transactions", "100,1000")),
+                Integer.parseInt(System.getProperty("load.rules", "12")),
+                Path.of(System.getProperty("load.output", "target/loadtest")),
+                System.getProperty("load.label", "latest"),
+                Integer.parseInt(System.getProperty("load.slowClients", "0")),
+                Duration.parse("PT" + System.getProperty("load.trickle", "5s")));
+    }
+
+    private static Map<String, Integer> weights(String spec) {
+        Map<String, Integer> out = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            String[] kv = entry.trim().split("=");
+            int weight = kv.length > 1 ? Integer.parseInt(kv[1].trim()) : 1;
+            if (weight > 0) out.put(kv[0].trim(), weight);
+        }
+        return out;
+    }
+
+    private static List<Integer> sizes(String spec) {
+        List<Integer> out = new ArrayList<>();
+        for (String size : spec.split(",")) out.add(Integer.parseInt(size.trim()));
+        return out;
+    }
+}
@@ -0,0 +1,382 @@
+package com.blackrock_hackathon.self_savings_planner.loadtest;
+
+import com.blackrock_hackathon.self_savings_planner.service.SyntheticWorkload;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Open-model load test: starts the app on a random port and sends requests at a fixed arrival
+ * rate, whether or not earlier ones have completed. Each latency is measured from the request's
+ * scheduled send time, not its actual send time, so a stalled server or a lagging dispatcher
+ * shows up in the percentiles instead of being hidden (no coordinated omission).
+ *
+ * <p>Only runs with {@code ./mvnw -Ploadtest test}; see {@link LoadConfig} for the {@code -Dload.*}
+ * settings. Application properties can be overridden the same way, e.g.
+ * {@code -Dplanner.admission.enabled=false}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoadHarness {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+    private static final String BASE_PATH = "/blackrock/challenge/v1";
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void run() throws Exception {
+        LoadConfig config = LoadConfig.fromSystemProperties();
+        List<Target> targets = targets(config);
+        Target[] schedule = schedule(targets, config.mix());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(executor)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            SlowClients slowClients = new SlowClients(port, slowBody(config), config, executor);
+            long elapsedNanos;
+            try {
+                drive(client, schedule, config.rate(), config.warmup());
+                targets.forEach(Target::reset);
+                slowClients.reset();
+                elapsedNanos = drive(client, schedule, config.rate(), config.duration());
+            } finally {
+                slowClients.stop();
+            }
+
+            Map<String, Object> report = report(config, targets, slowClients, elapsedNanos);
+            write(config, targets, report);
+            assertTrue(targets.stream().mapToLong(t -> t.histogram.getTotalCount()).sum() > 0, "no requests completed");
+        }
+    }
+
+    // ---- driving ----
+
+    /**
+     * Sends requests on the fixed schedule for {@code length}, then waits for the stragglers. Only
+     * the number of outstanding requests is kept, not the requests themselves (a {@code Phaser}
+     * would cap it at 65535).
+     */
+    private long drive(HttpClient client, Target[] schedule, double rate, Duration length) throws Exception {
+        long interval = (long) (1e9 / rate);
+        long total = length.toNanos() / interval;
+        AtomicLong outstanding = new AtomicLong(1);  // held by the dispatcher until the schedule ends
+        CompletableFuture<Void> drained = new CompletableFuture<>();
+        Runnable done = () -> {
+            if (outstanding.decrementAndGet() == 0) drained.complete(null);
+        };
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * interval;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+
+            Target target = schedule[(int) (i % schedule.length)];
+            outstanding.incrementAndGet();
+            client.sendAsync(target.request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        target.record(intended, response, error);
+                        done.run();
+                    });
+        }
+        done.run();
+        drained.get(2, TimeUnit.MINUTES);
+        return System.nanoTime() - start;
+    }
+
+    private List<Target> targets(LoadConfig config) {
+        List<Target> targets = new ArrayList<>();
+        for (String endpoint : config.mix().keySet()) {
+            if (endpoint.equals("performance")) {
+                targets.add(new Target(endpoint, endpoint, HttpRequest.newBuilder(uri("/performance")).GET().build()));
+                continue;
+            }
+            for (int size : config.transactions()) {
+                Object body = switch (endpoint) {
+                    case "parse" -> SyntheticWorkload.transactions(size, size);
+                    case "validator" -> SyntheticWorkload.validatorRequest(size, size);
+                    case "filter" -> SyntheticWorkload.filterRequest(size, config.rules(), size);
+                    case "nps", "index" -> SyntheticWorkload.returnsRequest(size, config.rules(), size);
+                    default -> throw new IllegalArgumentException("Unknown endpoint in load.mix: " + endpoint);
+                };
+                String path = switch (endpoint) {
+                    case "parse", "validator", "filter" -> "/transactions/" + endpoint;
+                    default -> "/returns/" + endpoint;
+                };
+                HttpRequest request = HttpRequest.newBuilder(uri(path))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                        .build();
+                targets.add(new Target(endpoint + "@" + size, endpoint, request));
+            }
+        }
+        return targets;
+    }
+
+    private byte[] slowBody(LoadConfig config) {
+        return objectMapper.writeValueAsBytes(SyntheticWorkload.returnsRequest(100, config.rules(), 100));
+    }
+
+    /** One slot per unit of endpoint weight (split over its payload sizes), in a fixed shuffled order. */
+    private static Target[] schedule(List<Target> targets, Map<String, Integer> mix) {
+        List<Target> slots = new ArrayList<>();
+        for (Target target : targets) {
+            for (int i = 0; i < mix.get(target.endpoint); i++) slots.add(target);
+        }
+        Collections.shuffle(slots, new Random(42));
+        return slots.toArray(Target[]::new);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + BASE_PATH + path);
+    }
+
+    // ---- reporting ----
+
+    private static Map<String, Object> report(LoadConfig config, List<Target> targets, SlowClients slowClients,
+                                              long elapsedNanos) {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("rate", config.rate());
+        settings.put("durationSeconds", config.duration().toSeconds());
+        settings.put("warmupSeconds", config.warmup().toSeconds());
+        settings.put("mix", config.mix());
+        settings.put("transactions", config.transactions());
+        settings.put("rules", config.rules());
+        settings.put("slowClients", config.slowClients());
+        settings.put("trickleSeconds", config.trickle().toMillis() / 1000.0);
+
+        Histogram all = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        long ok = 0, rejected = 0, errors = 0;
+        for (Target target : targets) {
+            all.add(target.histogram);
+            ok += target.ok.sum();
+            rejected += target.rejected.sum();
+            errors += target.errors.sum();
+            endpoints.put(target.name, summary(target.histogram, target.ok.sum(), target.rejected.sum(),
+                    target.errors.sum(), elapsedNanos));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", config.label());
+        report.put("config", settings);
+        report.put("all", summary(all, ok, rejected, errors, elapsedNanos));
+        report.put("endpoints", endpoints);
+        if (config.slowClients() > 0) {
+            Map<String, Object> slow = new LinkedHashMap<>();
+            slow.put("clients", config.slowClients());
+            slow.put("ok", slowClients.ok.sum());
+            slow.put("failed", slowClients.failed.sum());
+            slow.put("throughput", round(slowClients.ok.sum() / (elapsedNanos / 1e9)));
+            report.put("slowClients", slow);
+        }
+        return report;
+    }
+
+    private static Map<String, Object> summary(Histogram h, long ok, long rejected, long errors, long elapsedNanos) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50", ms(h.getValueAtPercentile(50)));
+        latency.put("p90", ms(h.getValueAtPercentile(90)));
+        latency.put("p99", ms(h.getValueAtPercentile(99)));
+        latency.put("p999", ms(h.getValueAtPercentile(99.9)));
+        latency.put("max", ms(h.getMaxValue()));
+        latency.put("mean", ms((long) h.getMean()));
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("count", h.getTotalCount());
+        out.put("ok", ok);
+        out.put("rejected", rejected);
+        out.put("errors", errors);
+        out.put("throughput", round(h.getTotalCount() / (elapsedNanos / 1e9)));
+        out.put("latencyMs", latency);
+        return out;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void write(LoadConfig config, List<Target> targets, Map<String, Object> report) throws IOException {
+        Files.createDirectories(config.output());
+        try (OutputStream out = Files.newOutputStream(config.output().resolve(config.label() + ".json"))) {
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(out, report);
+        }
+        for (Target target : targets) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(
+                    config.output().resolve(config.label() + "-" + target.name.replace('@', '-') + ".hgrm")))) {
+                target.histogram.outputPercentileDistribution(out, 1e6);
+            }
+        }
+
+        System.out.printf(Locale.ROOT, "%n%-16s %8s %7s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "429", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        Map<String, Object> rows = new LinkedHashMap<>((Map<String, Object>) report.get("endpoints"));
+        rows.put("all", report.get("all"));
+        rows.forEach((name, value) -> {
+            Map<String, Object> row = (Map<String, Object>) value;
+            Map<String, Object> latency = (Map<String, Object>) row.get("latencyMs");
+            System.out.printf(Locale.ROOT, "%-16s %8d %7d %7d %9.1f %9.3f %9.3f %9.3f %9.3f%n", name,
+                    row.get("count"), row.get("rejected"), row.get("errors"), row.get("throughput"),
+                    latency.get("p50"), latency.get("p99"), latency.get("p999"), latency.get("max"));
+        });
+        if (report.get("slowClients") instanceof Map<?, ?> slow) {
+            System.out.printf(Locale.ROOT, "slow clients: %s, %s ok, %s failed, %s req/s%n",
+                    slow.get("clients"), slow.get("ok"), slow.get("failed"), slow.get("throughput"));
+        }
+        System.out.println("Report: " + config.output().resolve(config.label() + ".json").toAbsolutePath());
+    }
+
+    private static double ms(long nanos) {
+        return round(nanos / 1e6);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    /**
+     * Connections that each send {@code POST /returns/nps} requests back to back, writing every body
+     * in ten pieces spread over {@code trickle}, as clients on a slow link would. Until its body is
+     * in, a request holds its Tomcat thread, so in platform mode enough of these use up
+     * {@code server.tomcat.threads.max} while the CPU stays idle.
+     */
+    private static final class SlowClients {
+
+        private static final int PIECES = 10;
+
+        private final int port;
+        private final byte[] head;
+        private final byte[] body;
+        private final long pauseNanos;
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private volatile boolean running = true;
+
+        private SlowClients(int port, byte[] body, LoadConfig config, ExecutorService executor) {
+            this.port = port;
+            this.head = ("POST " + BASE_PATH + "/returns/nps HTTP/1.1\r\nHost: localhost\r\n"
+                    + "Content-Type: application/json\r\nContent-Length: " + body.length + "\r\n"
+                    + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+            this.body = body;
+            this.pauseNanos = config.trickle().toNanos() / PIECES;
+            for (int i = 0; i < config.slowClients(); i++) executor.execute(this::loop);
+        }
+
+        private void loop() {
+            while (running) {
+                try {
+                    if (send() / 100 == 2) ok.increment();
+                    else failed.increment();
+                } catch (IOException e) {
+                    failed.increment();
+                }
+            }
+        }
+
+        /** Sends one request and returns its status code. */
+        private int send() throws IOException {
+            try (Socket socket = new Socket("localhost", port)) {
+                socket.setSoTimeout((int) TimeUnit.MINUTES.toMillis(2));
+                OutputStream out = socket.getOutputStream();
+                out.write(head);
+                out.flush();
+                for (int i = 0; i < PIECES; i++) {
+                    LockSupport.parkNanos(pauseNanos);
+                    int from = body.length * i / PIECES;
+                    out.write(body, from, body.length * (i + 1) / PIECES - from);
+                    out.flush();
+                }
+                InputStream in = socket.getInputStream();
+                String statusLine = new String(in.readNBytes(12), StandardCharsets.US_ASCII);  // "HTTP/1.1 200"
+                if (statusLine.length() < 12) throw new IOException("No response");
+                in.transferTo(OutputStream.nullOutputStream());
+                return Integer.parseInt(statusLine.substring(9));
+            }
+        }
+
+        private void reset() {
+            ok.reset();
+            failed.reset();
+        }
+
+        /** Lets each client finish the request it is sending, then stop. */
+        private void stop() {
+            running = false;
+        }
+    }
+
+    /** One endpoint at one payload size, with its latency histogram and outcome counters. */
+    private static final class Target {
+
+        private final String name;
+        private final String endpoint;
+        private final HttpRequest request;
+        private final ConcurrentHistogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        private Target(String name, String endpoint, HttpRequest request) {
+            this.name = name;
+            this.endpoint = endpoint;
+            this.request = request;
+        }
+
+        private void record(long intendedNanos, HttpResponse<?> response, Throwable error) {
+            histogram.recordValue(Math.min(System.nanoTime() - intendedNanos, HIGHEST_TRACKABLE_NANOS));
+            if (error != null) {
+                errors.increment();
+            } else if (response.statusCode() == 429) {
+                rejected.increment();
+            } else if (response.statusCode() >= 400) {
+                errors.increment();
+            } else {
+                ok.increment();
+            }
+        }
+
+        private void reset() {
+            histogram.reset();
+            ok.reset();
+            rejected.reset();
+            errors.reset();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+import com.blackrock_hackathon.self_savings_planner.config.AdmissionProperties;
+import com.blackrock_hackathon.self_savings_planner.config.RulePlanProperties;
+import com.blackrock_hackathon.self_savings_planner.dto.common.TemporalData;
+import com.blackrock_hackathon.self_savings_planner.dto.period.K;
+import com.blackrock_hackathon.self_savings_planner.dto.period.P;
+import com.blackrock_hackathon.self_savings_planner.dto.period.Q;
+import com.blackrock_hackathon.self_savings_planner.dto.request.FilterRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.ReturnsRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.RulePlanRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.TransactionInput;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionServiceTest {
+
+    private SimpleMeterRegistry registry;
+    private RulePlanService plans;
+    private AdmissionService service;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        plans = new RulePlanService(new RulePlanProperties(10));
+        service = new AdmissionService(new AdmissionProperties(true, 100, Duration.ZERO, Duration.ofSeconds(2)), registry,
+                plans);
+    }
+
+    @Nested
+    @DisplayName("cost estimation")
+    class CostTests {
+
+        @Test
+        @DisplayName("returns cost grows with transactions × lookup depth")
+        void returnsCost() {
+            var q = List.of(new Q(0.0, td()));
+            var p = List.of(new P(25.0, td()), new P(10.0, td()));
+            var k = List.of(new K(td()));
+            var tx = Collections.nCopies(10, new TransactionInput(LocalDateTime.now(), 100.0));
+
+            // 1 + compile 4 × (1 + 3) + 10 × (1 + depth 1 + depth 2 + depth 1)
+            assertEquals(67, service.cost(new ReturnsRequest(30, 50000.0, 5.0, q, p, k, tx)));
+        }
+
+        @Test
+        @DisplayName("a plan id is costed by the cached plan's sizes")
+        void planIdCost() {
+            List<K> k = new ArrayList<>();
+            for (int i = 0; i < 300; i++) k.add(new K(td()));
+            String planId = plans.register(new RulePlanRequest(List.of(), List.of(), k)).planId();
+            var tx = Collections.nCopies(10, new TransactionInput(LocalDateTime.now(), 100.0));
+
+            // 1 + 10 × (1 + depth 300 = 9); the K index merges the identical periods into one interval
+            assertEquals(101, service.cost(new ReturnsRequest(30, 50000.0, 5.0, null, null, null, tx, planId)));
+            assertEquals(21, service.cost(new FilterRequest(null, null, null, 50000.0, tx, planId)));
+        }
+
+        @Test
+        @DisplayName("null lists count as empty")
+        void nullLists() {
+            assertEquals(1, service.cost(new ReturnsRequest(30, 50000.0, 5.0, null, null, null, null)));
+        }
+    }
+
+    @Nested
+    @DisplayName("budget")
+    class BudgetTests {
+
+        @Test
+        @DisplayName("requests within budget are admitted and release on close")
+        void admitsAndReleases() {
+            try (var a = service.admit("test", 60)) {
+                assertThrows(AdmissionRejectedException.class, () -> service.admit("test", 60));
+            }
+            assertDoesNotThrow(() -> service.admit("test", 60).close());
+        }
+
+        @Test
+        @DisplayName("oversized request is clamped to the whole budget")
+        void oversizedClamped() {
+            try (var a = service.admit("test", 1_000_000)) {
+                assertThrows(AdmissionRejectedException.class, () -> service.admit("test", 1));
+            }
+        }
+
+        @Test
+        @DisplayName("rejection carries the configured Retry-After")
+        void retryAfter() {
+            try (var a = service.admit("test", 100)) {
+                var ex = assertThrows(AdmissionRejectedException.class, () -> service.admit("test", 1));
+                assertEquals(Duration.ofSeconds(2), ex.getRetryAfter());
+            }
+        }
+
+        @Test
+        @DisplayName("admitted and rejected counts are recorded")
+        void metricsRecorded() {
+            try (var a = service.admit("test", 100)) {
+                assertThrows(AdmissionRejectedException.class, () -> service.admit("test", 5));
+            }
+
+            assertEquals(1.0, registry.get("planner.admission.requests").tag("outcome", "admitted").counter().count());
+            assertEquals(1.0, registry.get("planner.admission.requests").tag("outcome", "rejected").counter().count());
+            assertEquals(105.0, registry.get("planner.admission.cost").summaries().stream()
+                    .mapToDouble(s -> s.totalAmount()).sum());
+        }
+
+        @Test
+        @DisplayName("a queued expensive request is not overtaken by later cheap ones")
+        void fairQueue() throws Exception {
+            var fair = new AdmissionService(new AdmissionProperties(true, 100, Duration.ofSeconds(10), Duration.ofSeconds(1)),
+                    registry, plans);
+            var held = fair.admit("test", 50);
+            var big = new CompletableFuture<AdmissionService.Permit>();
+            var cheap = new CompletableFuture<AdmissionService.Permit>();
+
+            awaitQueued(Thread.ofPlatform().start(() -> big.complete(fair.admit("test", 100))));
+            awaitQueued(Thread.ofPlatform().start(() -> cheap.complete(fair.admit("test", 1))));
+            assertFalse(cheap.isDone());  // 50 units are free, but the expensive request is ahead
+
+            held.close();
+            big.get(5, TimeUnit.SECONDS).close();
+            cheap.get(5, TimeUnit.SECONDS).close();
+        }
+
+        @Test
+        @DisplayName("CSV uploads are charged by length; an unknown length takes the whole budget")
+        void uploads() {
+            try (var a = service.admitUpload("test", -1)) {
+                assertThrows(AdmissionRejectedException.class, () -> service.admit("test", 1));
+            }
+            try (var a = service.admitUpload("test", 10L * AdmissionService.CSV_ROW_BYTES)) {
+                assertDoesNotThrow(() -> service.admit("test", 89).close());
+                assertThrows(AdmissionRejectedException.class, () -> service.admit("test", 90));
+            }
+        }
+
+        @Test
+        @DisplayName("disabled admission never rejects")
+        void disabled() {
+            var off = new AdmissionService(new AdmissionProperties(false, 1, Duration.ZERO, Duration.ofSeconds(1)),
+                    new SimpleMeterRegistry(), plans);
+            try (var a = off.admit("test", 50); var b = off.admit("test", 50)) {
+                assertNotNull(b);
+            }
+        }
+    }
+
+    // helpers
+
+    /** Waits until {@code thread} is parked in the semaphore's timed wait. */
+    private static void awaitQueued(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.TIMED_WAITING) {
+            assertTrue(thread.isAlive(), "request finished instead of queueing");
+            Thread.sleep(1);
+        }
+    }
+
+    private static TemporalData td() {
+        return new TemporalData(LocalDateTime.parse("2023-01-01T00:00:00"), LocalDateTime.parse("2023-12-31T23:59:59"));
+    }
+}
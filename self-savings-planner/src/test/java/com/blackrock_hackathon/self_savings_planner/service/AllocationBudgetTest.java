@@ -0,0 +1,116 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+import com.blackrock_hackathon.self_savings_planner.config.RulePlanProperties;
+import com.blackrock_hackathon.self_savings_planner.dto.request.FilterRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.ReturnsRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.TransactionInput;
+import com.blackrock_hackathon.self_savings_planner.dto.request.ValidatorRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Allocation budgets for the hot service paths, in bytes allocated per processed transaction.
+ *
+ * <p>Each call is warmed up first so the JIT has compiled (and escape-analysed) the loop, then the
+ * lowest of several measured calls is compared with the budget; the minimum filters out one-off
+ * allocations such as TLAB refills or lazily initialised JDK caches. Inputs are built before
+ * measuring, so only what the service itself allocates is counted. The budgets leave roughly 50 %
+ * headroom over the measured values: a failure means a change added per-transaction garbage, so
+ * either remove it or raise the budget on purpose in the same change.
+ *
+ * <p>Runs in every {@code ./mvnw test}, so a regression fails the normal build. It is tagged
+ * {@code alloc} so {@code ./mvnw -Palloc test} can run the budgets on their own.
+ */
+@Tag("alloc")
+class AllocationBudgetTest {
+
+    private static final int[] SIZES = {100, 1_000, 10_000};
+    private static final int RULES = 12;
+    private static final int WARMUP_CALLS = 30;
+    private static final int MEASURED_CALLS = 7;
+
+    // Bytes per transaction, indexed like SIZES. Smaller inputs carry more fixed per-call overhead
+    // (for returns, compiling the 12-rule plan dominates at n=100).
+    private static final long[] PARSE_BUDGET = {130, 130, 130};
+    private static final long[] VALIDATE_BUDGET = {1_700, 1_700, 1_600};
+    private static final long[] FILTER_BUDGET = {2_000, 2_000, 1_900};
+    private static final long[] RETURNS_BUDGET = {2_500, 1_000, 900};
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private TransactionService transactionService;
+    private ReturnsService returnsService;
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(THREADS.isThreadAllocatedMemorySupported(), "per-thread allocation counters unavailable");
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+        RulePlanService rulePlanService = new RulePlanService(new RulePlanProperties(100));
+        transactionService = new TransactionService(rulePlanService);
+        returnsService = new ReturnsService(rulePlanService);
+    }
+
+    @Test
+    @DisplayName("parseTransactions stays within its allocation budget")
+    void parseTransactions(TestReporter reporter) {
+        for (int i = 0; i < SIZES.length; i++) {
+            List<TransactionInput> input = SyntheticWorkload.transactions(SIZES[i], i);
+            check("parse", SIZES[i], PARSE_BUDGET[i], reporter, () -> transactionService.parseTransactions(input));
+        }
+    }
+
+    @Test
+    @DisplayName("validate (validator endpoint) stays within its allocation budget")
+    void validate(TestReporter reporter) {
+        for (int i = 0; i < SIZES.length; i++) {
+            ValidatorRequest input = SyntheticWorkload.validatorRequest(SIZES[i], i);
+            check("validate", SIZES[i], VALIDATE_BUDGET[i], reporter,
+                    () -> transactionService.validateTransactionWithWage(input));
+        }
+    }
+
+    @Test
+    @DisplayName("validate with K periods (filter endpoint) stays within its allocation budget")
+    void filter(TestReporter reporter) {
+        for (int i = 0; i < SIZES.length; i++) {
+            FilterRequest input = SyntheticWorkload.filterRequest(SIZES[i], RULES, i);
+            check("filter", SIZES[i], FILTER_BUDGET[i], reporter,
+                    () -> transactionService.validateTransactionWithWageAndPeriods(input));
+        }
+    }
+
+    @Test
+    @DisplayName("calculateReturns stays within its allocation budget")
+    void calculateReturns(TestReporter reporter) {
+        for (int i = 0; i < SIZES.length; i++) {
+            ReturnsRequest input = SyntheticWorkload.returnsRequest(SIZES[i], RULES, i);
+            check("returns", SIZES[i], RETURNS_BUDGET[i], reporter, () -> returnsService.calculateNpsReturns(input));
+        }
+    }
+
+    // helpers
+
+    private static void check(String path, int size, long budget, TestReporter reporter, Runnable call) {
+        for (int i = 0; i < WARMUP_CALLS; i++) call.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            long before = THREADS.getThreadAllocatedBytes(Thread.currentThread().threadId());
+            call.run();
+            best = Math.min(best, THREADS.getThreadAllocatedBytes(Thread.currentThread().threadId()) - before);
+        }
+        long perTransaction = best / size;
+        reporter.publishEntry("alloc." + path + "." + size + ".bytes.per.tx", Long.toString(perTransaction));
+        assertTrue(perTransaction <= budget, () -> path + " allocated " + perTransaction
+                + " B per transaction at n=" + size + ", budget is " + budget + " B");
+    }
+}
@@ -0,0 +1,37 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+import com.blackrock_hackathon.self_savings_planner.dto.request.TransactionInput;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Parse throughput of {@link CsvTransactionReader} on one million rows. Only runs with
+ * {@code ./mvnw -Ploadtest test}, so the default build stays fast and free of timing noise.
+ */
+class CsvReaderHarness {
+
+    @Test
+    void throughput(TestReporter reporter) {
+        int rows = 1_000_000;
+        List<TransactionInput> source = SyntheticWorkload.transactions(rows, 7);
+        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        StringBuilder sb = new StringBuilder(rows * 28);
+        for (TransactionInput tx : source) sb.append(fmt.format(tx.date())).append(',').append(tx.amount()).append('\n');
+        ByteBuffer bytes = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.US_ASCII));
+
+        for (int i = 0; i < 3; i++) CsvTransactionReader.readTransactions(bytes.duplicate());
+        long start = System.nanoTime();
+        List<TransactionInput> parsed = CsvTransactionReader.readTransactions(bytes.duplicate());
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        assertEquals(source, parsed);
+        reporter.publishEntry("csv.rows.per.second.millions", String.format("%.2f", rows / seconds / 1e6));
+    }
+}
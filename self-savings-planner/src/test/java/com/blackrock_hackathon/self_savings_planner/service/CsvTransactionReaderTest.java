@@ -0,0 +1,237 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+import com.blackrock_hackathon.self_savings_planner.dto.request.ReturnsRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.TransactionInput;
+import com.blackrock_hackathon.self_savings_planner.dto.response.EnrichedTransaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvTransactionReaderTest {
+
+    @Nested
+    @DisplayName("readTransactions")
+    class TransactionTests {
+
+        @Test
+        @DisplayName("parses date,amount rows with header, CRLF, quotes and blank lines")
+        void parsesRows() {
+            List<TransactionInput> rows = CsvTransactionReader.readTransactions(csv(
+                    "date,amount\r\n"
+                            + "2023-02-28 15:49:20,375\r\n"
+                            + "\r\n"
+                            + "\"2023-07-01 21:59:00\",\"620.50\"\n"
+                            + "2023-10-12T20:15:30,-10.25"));
+
+            assertEquals(3, rows.size());
+            assertEquals(LocalDateTime.of(2023, 2, 28, 15, 49, 20), rows.get(0).date());
+            assertEquals(375.0, rows.get(0).amount());
+            assertEquals(620.5, rows.get(1).amount());
+            assertEquals(LocalDateTime.of(2023, 10, 12, 20, 15, 30), rows.get(2).date());
+            assertEquals(-10.25, rows.get(2).amount());
+        }
+
+        @Test
+        @DisplayName("amounts match Double.parseDouble bit for bit")
+        void amountsMatchParseDouble() {
+            String[] amounts = {"0", "0.1", "0.01", "99.99", "1234567.89", "0.30000000000000004",
+                    "123456789012345678901234", "1e3", "-0", "007.50", "4999.995", "9007199254740993"};
+            StringBuilder sb = new StringBuilder();
+            for (String a : amounts) sb.append("2023-01-01 00:00:00,").append(a).append('\n');
+
+            List<TransactionInput> rows = CsvTransactionReader.readTransactions(csv(sb.toString()));
+
+            for (int i = 0; i < amounts.length; i++) {
+                assertEquals(Double.parseDouble(amounts[i]), rows.get(i).amount(), amounts[i]);
+            }
+        }
+
+        @Test
+        @DisplayName("empty amount becomes null")
+        void emptyAmount() {
+            assertNull(CsvTransactionReader.readTransactions(csv("2023-01-01 00:00:00,\n")).getFirst().amount());
+        }
+
+        @Test
+        @DisplayName("empty date becomes null, like a JSON null")
+        void emptyDate() {
+            List<TransactionInput> rows = CsvTransactionReader.readTransactions(csv(",375\n\"\",620\n"));
+
+            assertEquals(new TransactionInput(null, 375.0), rows.get(0));
+            assertEquals(new TransactionInput(null, 620.0), rows.get(1));
+        }
+
+        @Test
+        @DisplayName("only JSON-style finite numbers are accepted")
+        void strictNumbers() {
+            String[] rejected = {"NaN", "Infinity", "-Infinity", "1e400", "0x10", "1f", "1d", ".5", "5.", "-", "1e",
+                    "1e+", "1.2.3", "1 ", "+.e1"};
+            for (String amount : rejected) {
+                var e = assertThrows(CsvFormatException.class,
+                        () -> CsvTransactionReader.readTransactions(csv("2023-01-01 00:00:00," + amount)), amount);
+                assertTrue(e.getMessage().contains("Expected a number"), amount);
+            }
+            assertEquals(-1.5e-3, CsvTransactionReader.readTransactions(csv("2023-01-01 00:00:00,-1.5E-3"))
+                    .getFirst().amount());
+        }
+
+        @Test
+        @DisplayName("malformed rows report their line")
+        void malformedRows() {
+            var badDate = assertThrows(CsvFormatException.class,
+                    () -> CsvTransactionReader.readTransactions(csv("2023-01-01 00:00:00,1\n2023-13-01 00:00:00,1")));
+            assertEquals(2, badDate.getLine());
+
+            assertThrows(CsvFormatException.class,
+                    () -> CsvTransactionReader.readTransactions(csv("2023-01-01 00:00:00,abc")));
+            assertThrows(CsvFormatException.class,
+                    () -> CsvTransactionReader.readTransactions(csv("2023-01-01 00:00:00,1,2")));
+            assertThrows(CsvFormatException.class,
+                    () -> CsvTransactionReader.readTransactions(csv("k,2023-01-01 00:00:00,2023-12-31 23:59:59")));
+        }
+    }
+
+    @Nested
+    @DisplayName("readEnriched and readReturnsRequest")
+    class OtherFormatTests {
+
+        @Test
+        @DisplayName("ceiling and remnant are read when present and computed when absent")
+        void enrichedRows() {
+            List<EnrichedTransaction> rows = CsvTransactionReader.readEnriched(csv(
+                    "2023-01-15 08:00:00,375,500,125\n2023-01-16 08:00:00,620\n"));
+
+            assertEquals(500.0, rows.get(0).ceiling());
+            assertEquals(125.0, rows.get(0).remnant());
+            assertEquals(700.0, rows.get(1).ceiling());
+            assertEquals(80.0, rows.get(1).remnant(), 1e-9);
+        }
+
+        @Test
+        @DisplayName("rule rows populate Q, P and K next to transactions")
+        void returnsRequest() {
+            ReturnsRequest request = CsvTransactionReader.readReturnsRequest(csv(
+                    "date,amount\n"
+                            + "2023-02-28 15:49:20,375\n"
+                            + "q,0,2023-07-01 00:00:00,2023-07-31 23:59:59\n"
+                            + "p,25,2023-10-01 08:00:00,2023-12-31 19:59:59\n"
+                            + "k,2023-01-01 00:00:00,2023-12-31 23:59:59\n"
+                            + "2023-07-01 21:59:00,620\n"), 29, 50000.0, 5.5);
+
+            assertEquals(29, request.age());
+            assertEquals(2, request.transactions().size());
+            assertEquals(0.0, request.q().getFirst().fixed());
+            assertEquals(25.0, request.p().getFirst().extra());
+            assertEquals(LocalDateTime.of(2023, 12, 31, 23, 59, 59), request.k().getFirst().temporalData().end());
+        }
+    }
+
+    @Nested
+    @DisplayName("streamed uploads")
+    class StreamTests {
+
+        @Test
+        @DisplayName("rows split across chunk boundaries parse as in one buffer, growing the chunk for long lines")
+        void chunkBoundaries() throws IOException {
+            String text = rows(2_000, "date,amount\r\n");
+
+            for (int chunk : new int[]{16, 61, 256, CsvTransactionReader.CHUNK}) {
+                List<TransactionInput> streamed = new ArrayList<>();
+                CsvTransactionReader.transactions(stream(text), chunk).forEach(streamed::add);
+                assertEquals(CsvTransactionReader.readTransactions(csv(text)), streamed, "chunk " + chunk);
+            }
+        }
+
+        @Test
+        @DisplayName("errors report their line in the whole upload, and only the first line may be a header")
+        void absoluteLines() {
+            String badRow = rows(1_499, "date,amount\n") + "2023-13-01 00:00:00,1\n" + rows(10, "");
+            String lateHeader = rows(700, "") + "date,amount\n";
+
+            var bad = assertThrows(CsvFormatException.class,
+                    () -> CsvTransactionReader.enriched(stream(badRow), 256).forEach(tx -> {}));
+            var header = assertThrows(CsvFormatException.class,
+                    () -> CsvTransactionReader.transactions(stream(lateHeader), 256).forEach(tx -> {}));
+
+            assertEquals(1_501, bad.getLine());
+            assertEquals(701, header.getLine());
+        }
+
+        @Test
+        @DisplayName("a line longer than the chunk limit fails instead of growing without bound")
+        void overlongLine() {
+            String text = "2023-01-01 00:00:00," + "1".repeat(CsvTransactionReader.MAX_LINE) + "\n";
+
+            var e = assertThrows(CsvFormatException.class,
+                    () -> CsvTransactionReader.transactions(stream(text), 4096).forEach(tx -> {}));
+            assertEquals(1, e.getLine());
+        }
+
+        @Test
+        @DisplayName("returns rule rows are compiled once, before the first transaction row is handed on")
+        void returnsRulesFirst() throws IOException {
+            String text = "q,0,2023-07-01 00:00:00,2023-07-31 23:59:59\n"
+                    + "p,25,2023-10-01 08:00:00,2023-12-31 19:59:59\n"
+                    + "k,2023-01-01 00:00:00,2023-12-31 23:59:59\n" + rows(500, "");
+            List<ReturnsRequest> rules = new ArrayList<>();
+            List<TransactionInput> transactions = new ArrayList<>();
+
+            List<TransactionInput> target = CsvTransactionReader.streamReturnsRequest(stream(text), 128, r -> {
+                assertTrue(transactions.isEmpty());
+                rules.add(r);
+                return transactions;
+            }, List::add);
+
+            assertSame(transactions, target);
+            assertEquals(1, rules.size());
+            assertEquals(25.0, rules.getFirst().p().getFirst().extra());
+            assertEquals(1, rules.getFirst().k().size());
+            assertEquals(CsvTransactionReader.readTransactions(csv(rows(500, ""))), transactions);
+        }
+
+        @Test
+        @DisplayName("a returns upload without transactions still gets its rules, and late rule rows fail")
+        void returnsRuleOrder() throws IOException {
+            String late = rows(300, "") + "k,2023-01-01 00:00:00,2023-12-31 23:59:59\n";
+
+            ReturnsRequest onlyRules = CsvTransactionReader.streamReturnsRequest(
+                    stream("k,2023-01-01 00:00:00,2023-12-31 23:59:59\n"), r -> r, (r, tx) -> fail());
+            var e = assertThrows(CsvFormatException.class,
+                    () -> CsvTransactionReader.streamReturnsRequest(stream(late), 64, r -> r, (r, tx) -> {}));
+
+            assertEquals(1, onlyRules.k().size());
+            assertEquals(301, e.getLine());
+        }
+
+        private static InputStream stream(String text) {
+            return new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        /** {@code n} distinct {@code date,amount} rows after {@code header}. */
+        private static String rows(int n, String header) {
+            StringBuilder sb = new StringBuilder(header);
+            for (int i = 0; i < n; i++) {
+                sb.append(String.format("2023-%02d-%02d %02d:%02d:00,%d.%02d\n", 1 + i % 12, 1 + i % 28, i % 24,
+                        i % 60, 10 + i * 7, i % 100));
+            }
+            return sb.toString();
+        }
+    }
+
+    // helpers
+
+    private static ByteBuffer csv(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,69 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+import com.blackrock_hackathon.self_savings_planner.dto.common.TemporalData;
+import com.blackrock_hackathon.self_savings_planner.dto.period.K;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KIntervalIndexTest {
+
+    @Test
+    @DisplayName("overlapping periods merge into one interval")
+    void mergesOverlaps() {
+        var index = KIntervalIndex.of(List.of(
+                k("2023-03-01 00:00:00", "2023-06-30 23:59:59"),
+                k("2023-01-01 00:00:00", "2023-03-31 23:59:59"),
+                k("2023-05-01 00:00:00", "2023-05-31 23:59:59"),
+                k("2023-09-01 00:00:00", "2023-09-30 23:59:59")
+        ));
+
+        assertEquals(2, index.size());
+        assertTrue(index.contains(dt("2023-01-01 00:00:00")));
+        assertTrue(index.contains(dt("2023-06-30 23:59:59")));
+        assertFalse(index.contains(dt("2023-07-01 00:00:00")));
+        assertTrue(index.contains(dt("2023-09-15 12:00:00")));
+        assertFalse(index.contains(dt("2022-12-31 23:59:59")));
+        assertFalse(index.contains(dt("2023-10-01 00:00:00")));
+    }
+
+    @Test
+    @DisplayName("touching but non-overlapping periods keep the gap between them")
+    void adjacentPeriods() {
+        var index = KIntervalIndex.of(List.of(
+                k("2023-01-01 00:00:00", "2023-01-31 23:59:59"),
+                k("2023-02-01 00:00:00", "2023-02-28 23:59:59")
+        ));
+
+        assertEquals(2, index.size());
+        assertFalse(index.contains(dt("2023-01-31 23:59:59").plusNanos(500_000_000)));
+        assertTrue(index.contains(dt("2023-02-01 00:00:00")));
+    }
+
+    @Test
+    @DisplayName("periods with missing or inverted bounds are ignored")
+    void invalidPeriodsDropped() {
+        var index = KIntervalIndex.of(List.of(
+                new K(null),
+                new K(new TemporalData(null, dt("2023-12-31 23:59:59"))),
+                k("2023-12-31 00:00:00", "2023-01-01 00:00:00")
+        ));
+
+        assertEquals(0, index.size());
+        assertFalse(index.contains(dt("2023-06-01 00:00:00")));
+    }
+
+    // helpers
+
+    private static K k(String start, String end) {
+        return new K(new TemporalData(dt(start), dt(end)));
+    }
+
+    private static LocalDateTime dt(String datetime) {
+        return LocalDateTime.parse(datetime.replace(" ", "T"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+import com.blackrock_hackathon.self_savings_planner.config.RulePlanProperties;
+import com.blackrock_hackathon.self_savings_planner.service.RequestTrace.Stage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestTraceTest {
+
+    private RulePlanService rulePlanService;
+
+    @BeforeEach
+    void setUp() {
+        rulePlanService = new RulePlanService(new RulePlanProperties(100));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestTrace.clear();
+    }
+
+    @Test
+    @DisplayName("untraced requests have no current trace")
+    void untraced() {
+        new ReturnsService(rulePlanService).calculateNpsReturns(SyntheticWorkload.returnsRequest(20, 3, 1));
+        assertNull(RequestTrace.current());
+    }
+
+    @Test
+    @DisplayName("returns report every calculation stage and the rule cardinalities")
+    void returnsStages() {
+        RequestTrace trace = RequestTrace.start();
+        new ReturnsService(rulePlanService).calculateNpsReturns(SyntheticWorkload.returnsRequest(500, 6, 1));
+        String header = trace.serverTiming();
+
+        for (String stage : new String[]{"plan", "ceiling", "q", "p", "k", "compounding", "tax", "total"}) {
+            assertTrue(header.contains(stage + ";dur="), () -> stage + " missing from " + header);
+        }
+        assertTrue(header.contains("tx;desc=500"), header);
+        assertTrue(header.contains("k;desc=6"), header);
+        assertTrue(header.matches(".*alloc;desc=\"\\d+ B\".*"), header);
+    }
+
+    @Test
+    @DisplayName("filter reports validation and K stages with valid and invalid counts")
+    void filterStages() {
+        RequestTrace trace = RequestTrace.start();
+        new TransactionService(rulePlanService)
+                .validateTransactionWithWageAndPeriods(SyntheticWorkload.filterRequest(300, 4, 2));
+        String header = trace.serverTiming();
+
+        assertTrue(header.contains("validate;dur="), header);
+        assertTrue(header.contains("k;dur="), header);
+        assertTrue(header.contains("valid;desc=300"), header);
+        assertTrue(header.contains("invalid;desc=0"), header);
+    }
+
+    @Test
+    @DisplayName("laps charge elapsed time to the named stage only")
+    void laps() throws InterruptedException {
+        RequestTrace trace = RequestTrace.start();
+        Thread.sleep(5);
+        trace.mark();
+        trace.lap(Stage.Q);
+        Thread.sleep(5);
+        trace.lap(Stage.DESERIALIZE);
+
+        String header = trace.serverTiming();
+        assertTrue(header.startsWith("deserialize;dur="), header);
+        double q = Double.parseDouble(header.replaceAll(".*\\bq;dur=([0-9.]+).*", "$1"));
+        assertTrue(q < 5.0, header);
+    }
+}
@@ -1,11 +1,17 @@
 package com.blackrock_hackathon.self_savings_planner.service;
 
+import com.blackrock_hackathon.self_savings_planner.config.RulePlanProperties;
+import com.blackrock_hackathon.self_savings_planner.dto.common.ParameterRange;
 import com.blackrock_hackathon.self_savings_planner.dto.common.TemporalData;
 import com.blackrock_hackathon.self_savings_planner.dto.period.K;
 import com.blackrock_hackathon.self_savings_planner.dto.period.P;
 import com.blackrock_hackathon.self_savings_planner.dto.period.Q;
+import com.blackrock_hackathon.self_savings_planner.dto.request.GoalSeekRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.ReturnsGridRequest;
 import com.blackrock_hackathon.self_savings_planner.dto.request.ReturnsRequest;
 import com.blackrock_hackathon.self_savings_planner.dto.request.TransactionInput;
+import com.blackrock_hackathon.self_savings_planner.dto.response.GoalSeekResponse;
+import com.blackrock_hackathon.self_savings_planner.dto.response.ReturnsGridResponse;
 import com.blackrock_hackathon.self_savings_planner.dto.response.ReturnsResponse;
 import com.blackrock_hackathon.self_savings_planner.dto.response.Saving;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +20,7 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,7 +31,7 @@ class ReturnsServiceTest {
 
     @BeforeEach
     void setUp() {
-        service = new ReturnsService();
+        service = new ReturnsService(new RulePlanService(new RulePlanProperties(100)));
     }
 
     /** Builds the exact PDF example request. */
@@ -224,6 +231,142 @@ class ReturnsServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("What-if grid")
+    class GridTests {
+
+        @Test
+        @DisplayName("every cell matches the single-request NPS and index results")
+        void matchesSingleRequests() {
+            ReturnsRequest base = SyntheticWorkload.returnsRequest(300, 12, 5);
+            for (String fund : List.of("nps", "index")) {
+                ReturnsGridResponse grid = service.calculateGrid(new ReturnsGridRequest(base,
+                        new ParameterRange(25.0, 65.0, 10.0), new ParameterRange(0.0, 8.0, 2.5), null, fund));
+                int periods = grid.periods().size();
+                assertEquals(List.of(25, 35, 45, 55, 65), grid.ages());
+                assertEquals(List.of(0.0, 2.5, 5.0, 7.5), grid.inflation());
+                assertEquals(grid.ages().size() * grid.inflation().size() * periods, grid.profit().length);
+
+                for (int a = 0; a < grid.ages().size(); a++) {
+                    for (int i = 0; i < grid.inflation().size(); i++) {
+                        ReturnsRequest single = new ReturnsRequest(grid.ages().get(a), base.wage(),
+                                grid.inflation().get(i), base.q(), base.p(), base.k(), base.transactions());
+                        ReturnsResponse expected = fund.equals("nps")
+                                ? service.calculateNpsReturns(single) : service.calculateIndexReturns(single);
+                        for (int k = 0; k < periods; k++) {
+                            Saving saving = expected.savingsByDates().get(k);
+                            assertEquals(saving.profit(), grid.profit()[(a * grid.inflation().size() + i) * periods + k], 0.011);
+                            assertEquals(saving.amount(), grid.amounts().get(k));
+                            assertEquals(saving.taxBenefit(), grid.taxBenefits().get(k));
+                        }
+                    }
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("rates default to the fund rate and ranges include their end")
+        void rateAxis() {
+            ReturnsGridResponse grid = service.calculateGrid(new ReturnsGridRequest(pdfExample(), null, null,
+                    new ParameterRange(6.0, 7.0, 0.1), "nps"));
+
+            assertEquals(11, grid.rates().size());
+            assertEquals(7.0, grid.rates().getLast());
+            assertEquals(List.of(7.11), service.calculateGrid(
+                    new ReturnsGridRequest(pdfExample(), null, null, null, null)).rates());
+        }
+
+        @Test
+        @DisplayName("malformed ranges and oversized grids are rejected")
+        void invalidRanges() {
+            ReturnsRequest base = pdfExample();
+            assertThrows(InvalidGridException.class, () -> service.calculateGrid(
+                    new ReturnsGridRequest(base, new ParameterRange(30.0, 20.0, 1.0), null, null, null)));
+            assertThrows(InvalidGridException.class, () -> service.calculateGrid(
+                    new ReturnsGridRequest(base, new ParameterRange(20.0, 30.0, 0.5), null, null, null)));
+            assertThrows(InvalidGridException.class, () -> service.calculateGrid(
+                    new ReturnsGridRequest(base, null, new ParameterRange(0.0, 5.0, -1.0), null, null)));
+            assertThrows(InvalidGridException.class, () -> service.calculateGrid(
+                    new ReturnsGridRequest(base, null, new ParameterRange(0.0, 5.0, null), null, null)));
+            assertThrows(InvalidGridException.class, () -> service.calculateGrid(
+                    new ReturnsGridRequest(base, null, null, null, "bonds")));
+            assertThrows(InvalidGridException.class, () -> service.calculateGrid(
+                    new ReturnsGridRequest(base, new ParameterRange(0.0, 100.0, 1.0),
+                            new ParameterRange(0.0, 99.9, 0.1), new ParameterRange(0.0, 99.9, 0.1), null)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Goal seek")
+    class GoalSeekTests {
+
+        @Test
+        @DisplayName("NPS extra is the smallest cent amount that reaches the target, tax benefit included")
+        void npsMatchesRecompute() {
+            ReturnsRequest base = highEarner();
+            for (double target : new double[]{2_000, 40_000, 150_000, 600_000}) {
+                GoalSeekResponse goal = service.goalSeekNps(new GoalSeekRequest(base, target, 1));
+
+                assertTrue(goal.extra() > 0);
+                assertTrue(corpus(service.calculateNpsReturns(withExtra(base, goal.extra())), 1) >= target - 0.02);
+                assertTrue(corpus(service.calculateNpsReturns(withExtra(base, goal.extra() - 0.01)), 1) < target);
+                assertEquals(goal.corpus(), goal.amount() + goal.profit() + goal.taxBenefit(), 0.02);
+            }
+        }
+
+        @Test
+        @DisplayName("index extra matches a recompute with that extra as a P period")
+        void indexMatchesRecompute() {
+            ReturnsRequest base = pdfExample();
+            GoalSeekResponse goal = service.goalSeekIndex(new GoalSeekRequest(base, 25_000.0, null));
+            ReturnsResponse recomputed = service.calculateIndexReturns(withExtra(base, goal.extra()));
+
+            assertEquals(recomputed.savingsByDates().getFirst().amount(), goal.amount(), 0.01);
+            assertEquals(recomputed.savingsByDates().getFirst().profit(), goal.profit(), 0.01);
+            assertTrue(corpus(service.calculateIndexReturns(withExtra(base, goal.extra() - 0.01)), 0) < 25_000);
+            assertEquals(4, goal.transactions());
+        }
+
+        @Test
+        @DisplayName("a target already met needs no extra; an empty period or a missing input cannot reach one")
+        void edges() {
+            GoalSeekResponse met = service.goalSeekIndex(new GoalSeekRequest(pdfExample(), 1.0, 0));
+            assertEquals(0.0, met.extra());
+            assertEquals(met.baseAmount(), met.amount());
+
+            var k = List.of(new K(td("2024-01-01 00:00:00", "2024-12-31 23:59:59")));
+            var empty = new ReturnsRequest(30, 50000.0, 5.0, List.of(), List.of(), k,
+                    List.of(tx("2023-06-15 12:00:00", 250)));
+            assertThrows(InvalidGoalException.class, () -> service.goalSeekNps(new GoalSeekRequest(empty, 1000.0, 0)));
+            assertThrows(InvalidGoalException.class, () -> service.goalSeekNps(new GoalSeekRequest(pdfExample(), 1000.0, 2)));
+            assertThrows(InvalidGoalException.class, () -> service.goalSeekNps(new GoalSeekRequest(pdfExample(), -5.0, 0)));
+
+            ReturnsRequest r = pdfExample();
+            var noAge = new ReturnsRequest(null, r.wage(), r.inflation(), r.q(), r.p(), r.k(), r.transactions());
+            var noInflation = new ReturnsRequest(r.age(), r.wage(), null, r.q(), r.p(), r.k(), r.transactions());
+            assertThrows(InvalidGoalException.class, () -> service.goalSeekIndex(new GoalSeekRequest(noAge, 1000.0, 0)));
+            assertThrows(InvalidGoalException.class, () -> service.goalSeekIndex(new GoalSeekRequest(noInflation, 1000.0, 0)));
+        }
+
+        /** The PDF example with an 18L annual wage, so the NPS tax benefit is non-zero. */
+        private ReturnsRequest highEarner() {
+            ReturnsRequest r = pdfExample();
+            return new ReturnsRequest(r.age(), 150_000.0, r.inflation(), r.q(), r.p(), r.k(), r.transactions());
+        }
+
+        /** {@code request} with one more P period adding {@code extra} to every transaction. */
+        private ReturnsRequest withExtra(ReturnsRequest r, double extra) {
+            List<P> p = new ArrayList<>(r.p());
+            p.add(new P(extra, td("2000-01-01 00:00:00", "2099-12-31 23:59:59")));
+            return new ReturnsRequest(r.age(), r.wage(), r.inflation(), r.q(), p, r.k(), r.transactions());
+        }
+
+        private double corpus(ReturnsResponse response, int period) {
+            Saving saving = response.savingsByDates().get(period);
+            return saving.amount() + saving.profit() + saving.taxBenefit();
+        }
+    }
+
     // helpers
 
     private static TransactionInput tx(String datetime, double amount) {
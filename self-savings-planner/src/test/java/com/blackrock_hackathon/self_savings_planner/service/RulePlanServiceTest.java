@@ -0,0 +1,241 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+import com.blackrock_hackathon.self_savings_planner.config.RulePlanProperties;
+import com.blackrock_hackathon.self_savings_planner.dto.common.TemporalData;
+import com.blackrock_hackathon.self_savings_planner.dto.period.K;
+import com.blackrock_hackathon.self_savings_planner.dto.period.P;
+import com.blackrock_hackathon.self_savings_planner.dto.period.Q;
+import com.blackrock_hackathon.self_savings_planner.dto.request.ReturnsRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.RulePlanRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.TransactionInput;
+import com.blackrock_hackathon.self_savings_planner.dto.response.RulePlanResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RulePlanServiceTest {
+
+    private RulePlanService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RulePlanService(new RulePlanProperties(2));
+    }
+
+    @Nested
+    @DisplayName("compiled lookup tables")
+    class CompileTests {
+
+        @Test
+        @DisplayName("Q and P lookups match a scan over every period")
+        void matchesScan() {
+            SplittableRandom random = new SplittableRandom(3);
+            LocalDateTime base = LocalDateTime.of(2023, 1, 1, 0, 0, 0);
+            List<Q> q = new ArrayList<>();
+            List<P> p = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                q.add(new Q((double) random.nextInt(0, 100), randomPeriod(random, base)));
+                p.add(new P(random.nextInt(0, 5000) / 100.0, randomPeriod(random, base)));
+            }
+            q.add(new Q(7.0, q.get(3).temporalData()));  // same start as q[3] → q[3] keeps winning
+            RulePlan plan = RulePlan.compile(q, p, List.of());
+
+            for (int i = 0; i < 5000; i++) {
+                LocalDateTime date = base.plusSeconds(random.nextLong(60L * 24 * 3600));
+                BigDecimal remnant = BigDecimal.valueOf(random.nextInt(0, 100));
+                assertEquals(0, scanQ(date, remnant, q).compareTo(plan.applyQ(date, remnant)), date::toString);
+                assertEquals(0, scanP(date, remnant, p).compareTo(plan.applyP(date, remnant)), date::toString);
+            }
+        }
+
+        @Test
+        @DisplayName("period bounds are inclusive")
+        void inclusiveBounds() {
+            var td = td("2023-07-01 00:00:00", "2023-07-31 23:59:59");
+            RulePlan plan = RulePlan.compile(List.of(new Q(5.0, td)), List.of(new P(10.0, td)), null);
+
+            assertEquals(new BigDecimal("5.0"), plan.applyQ(dt("2023-07-31 23:59:59"), BigDecimal.ONE));
+            assertEquals(BigDecimal.ONE, plan.applyQ(dt("2023-08-01 00:00:00"), BigDecimal.ONE));
+            assertEquals(new BigDecimal("11.0"), plan.applyP(dt("2023-07-01 00:00:00"), BigDecimal.ONE));
+            assertEquals(BigDecimal.ONE, plan.applyP(dt("2023-06-30 23:59:59"), BigDecimal.ONE));
+        }
+
+        @Test
+        @DisplayName("a period ending at LocalDateTime.MAX is open-ended")
+        void endAtMax() {
+            var open = new TemporalData(dt("2023-07-01 00:00:00"), LocalDateTime.MAX);
+            RulePlan plan = RulePlan.compile(
+                    List.of(new Q(5.0, open)), List.of(new P(10.0, open)), List.of(new K(open)));
+
+            assertEquals(new BigDecimal("5.0"), plan.applyQ(LocalDateTime.MAX, BigDecimal.ONE));
+            assertEquals(new BigDecimal("11.0"), plan.applyP(dt("9999-12-31 23:59:59"), BigDecimal.ONE));
+            assertEquals(BigDecimal.ONE, plan.applyQ(dt("2023-06-30 23:59:59"), BigDecimal.ONE));
+            assertTrue(plan.kSegment(LocalDateTime.MAX) >= 0);
+        }
+
+        @Test
+        @DisplayName("K sums and counts from segments match a scan over every K period")
+        void kSumsMatchScan() {
+            SplittableRandom random = new SplittableRandom(5);
+            LocalDateTime base = LocalDateTime.of(2023, 1, 1, 0, 0, 0);
+            List<K> k = new ArrayList<>();
+            for (int i = 0; i < 30; i++) k.add(new K(randomPeriod(random, base)));
+            RulePlan plan = RulePlan.compile(List.of(), List.of(), k);
+
+            PeriodSums sums = new PeriodSums(plan);
+            PeriodSums partial = sums.newPartial();
+            List<TransactionInput> tx = new ArrayList<>();
+            for (int i = 0; i < 3000; i++) {
+                LocalDateTime date = base.plusSeconds(random.nextLong(60L * 24 * 3600));
+                tx.add(new TransactionInput(date, random.nextInt(0, 10_000) / 100.0));
+                (i % 2 == 0 ? sums : partial).add(tx.getLast(), null);
+            }
+            sums.merge(partial);
+
+            BigDecimal[] actual = sums.sums();
+            long[] counts = sums.counts();
+            for (int i = 0; i < k.size(); i++) {
+                BigDecimal expected = BigDecimal.ZERO;
+                long n = 0;
+                for (TransactionInput t : tx) {
+                    if (within(t.date(), k.get(i).temporalData())) {
+                        BigDecimal amount = BigDecimal.valueOf(t.amount());
+                        expected = expected.add(amount.divide(BigDecimal.valueOf(100), 0, RoundingMode.CEILING)
+                                .multiply(BigDecimal.valueOf(100)).subtract(amount));
+                        n++;
+                    }
+                }
+                assertEquals(0, expected.compareTo(actual[i]), "k[" + i + "]");
+                assertEquals(n, counts[i], "k[" + i + "]");
+            }
+            assertEquals(3000, sums.transactions());
+        }
+
+        @Test
+        @DisplayName("missing bounds or amounts are rejected")
+        void invalidRules() {
+            assertThrows(InvalidRulePlanException.class,
+                    () -> RulePlan.compile(List.of(new Q(null, td("2023-01-01 00:00:00", "2023-01-02 00:00:00"))), null, null));
+            assertThrows(InvalidRulePlanException.class,
+                    () -> RulePlan.compile(null, List.of(new P(1.0, null)), null));
+            assertThrows(InvalidRulePlanException.class,
+                    () -> RulePlan.compile(null, null, List.of(new K(new TemporalData(null, null)))));
+        }
+    }
+
+    @Nested
+    @DisplayName("plan cache")
+    class CacheTests {
+
+        @Test
+        @DisplayName("identical rule sets get the same id")
+        void contentAddressed() {
+            RulePlanResponse a = service.register(rules(25.0));
+            RulePlanResponse b = service.register(rules(25.0));
+            RulePlanResponse c = service.register(rules(30.0));
+
+            assertEquals(a.planId(), b.planId());
+            assertNotEquals(a.planId(), c.planId());
+            assertEquals(1, a.q());
+        }
+
+        @Test
+        @DisplayName("least recently used plan is evicted beyond the bound")
+        void boundedLru() {
+            String first = service.register(rules(1.0)).planId();
+            String second = service.register(rules(2.0)).planId();
+            service.get(first);
+            service.register(rules(3.0));
+
+            assertNotNull(service.get(first));
+            assertThrows(UnknownPlanException.class, () -> service.get(second));
+        }
+
+        @Test
+        @DisplayName("peek does not change the eviction order")
+        void peekKeepsLruOrder() {
+            String first = service.register(rules(1.0)).planId();
+            service.register(rules(2.0));
+            assertNotNull(service.peek(first));
+            service.register(rules(3.0));
+
+            assertNull(service.peek(first));
+            assertNull(service.peek(null));
+        }
+
+        @Test
+        @DisplayName("plan id and inline lists together are ambiguous")
+        void planAndInline() {
+            String id = service.register(rules(1.0)).planId();
+
+            assertThrows(InvalidRulePlanException.class,
+                    () -> service.resolve(id, List.of(), List.of(), List.of(new K(td("2023-01-01 00:00:00", "2023-12-31 23:59:59")))));
+            assertNotNull(service.resolve(id, List.of(), null, null));
+        }
+
+        @Test
+        @DisplayName("returns via plan id equal returns with inline rules")
+        void returnsViaPlan() {
+            ReturnsService returns = new ReturnsService(service);
+            ReturnsRequest inline = SyntheticWorkload.returnsRequest(300, 12, 5);
+            String id = service.register(new RulePlanRequest(inline.q(), inline.p(), inline.k())).planId();
+            List<TransactionInput> tx = inline.transactions();
+
+            assertEquals(returns.calculateNpsReturns(inline), returns.calculateNpsReturns(
+                    new ReturnsRequest(inline.age(), inline.wage(), inline.inflation(), null, null, null, tx, id)));
+        }
+    }
+
+    // helpers
+
+    /** Reference semantics: latest start wins, ties go to the first in the list. */
+    private static BigDecimal scanQ(LocalDateTime date, BigDecimal remnant, List<Q> qs) {
+        Q best = null;
+        for (Q q : qs) {
+            if (within(date, q.temporalData())
+                    && (best == null || q.temporalData().start().isAfter(best.temporalData().start()))) {
+                best = q;
+            }
+        }
+        return best != null ? BigDecimal.valueOf(best.fixed()) : remnant;
+    }
+
+    private static BigDecimal scanP(LocalDateTime date, BigDecimal remnant, List<P> ps) {
+        for (P p : ps) {
+            if (within(date, p.temporalData())) remnant = remnant.add(BigDecimal.valueOf(p.extra()));
+        }
+        return remnant;
+    }
+
+    private static boolean within(LocalDateTime date, TemporalData period) {
+        return !date.isBefore(period.start()) && !date.isAfter(period.end());
+    }
+
+    private static TemporalData randomPeriod(SplittableRandom random, LocalDateTime base) {
+        LocalDateTime start = base.plusSeconds(random.nextLong(60L * 24 * 3600));
+        return new TemporalData(start, start.plusSeconds(random.nextLong(-3600, 10L * 24 * 3600)));
+    }
+
+    private static RulePlanRequest rules(double extra) {
+        var td = td("2023-07-01 00:00:00", "2023-07-31 23:59:59");
+        return new RulePlanRequest(List.of(new Q(0.0, td)), List.of(new P(extra, td)), List.of(new K(td)));
+    }
+
+    private static TemporalData td(String start, String end) {
+        return new TemporalData(dt(start), dt(end));
+    }
+
+    private static LocalDateTime dt(String datetime) {
+        return LocalDateTime.parse(datetime.replace(" ", "T"));
+    }
+}
@@ -0,0 +1,182 @@
+package com.blackrock_hackathon.self_savings_planner.service;
+
+import com.blackrock_hackathon.self_savings_planner.config.RulePlanProperties;
+import com.blackrock_hackathon.self_savings_planner.config.ShadowProperties;
+import com.blackrock_hackathon.self_savings_planner.dto.request.FilterRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.ReturnsRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.RulePlanRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.request.ValidatorRequest;
+import com.blackrock_hackathon.self_savings_planner.dto.response.ReturnsResponse;
+import com.blackrock_hackathon.self_savings_planner.dto.response.Saving;
+import com.blackrock_hackathon.self_savings_planner.dto.response.ValidationResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShadowVerifierTest {
+
+    private SimpleMeterRegistry registry;
+    private RulePlanService rulePlanService;
+    private ReturnsService returnsService;
+    private TransactionService transactionService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        rulePlanService = new RulePlanService(new RulePlanProperties(100));
+        returnsService = new ReturnsService(rulePlanService);
+        transactionService = new TransactionService(rulePlanService);
+    }
+
+    @Nested
+    @DisplayName("field comparison")
+    class DiffTests {
+
+        @Test
+        @DisplayName("identical results have no divergences")
+        void identical() {
+            ReturnsResponse response = returnsService.calculateNpsReturns(SyntheticWorkload.returnsRequest(50, 4, 1));
+            assertTrue(ShadowVerifier.diff(response, response).isEmpty());
+        }
+
+        @Test
+        @DisplayName("a changed saving is tagged by field path without list indexes")
+        void changedSaving() {
+            ReturnsResponse expected = returnsService.calculateNpsReturns(SyntheticWorkload.returnsRequest(50, 4, 1));
+            ReturnsResponse actual = withProfitOf(expected, 1, 0.01);
+
+            List<ShadowVerifier.Divergence> divergences = ShadowVerifier.diff(expected, actual);
+
+            assertEquals(1, divergences.size());
+            assertEquals("savingsByDates[].profit", divergences.getFirst().field());
+            assertEquals("savingsByDates[1].profit", divergences.getFirst().path());
+        }
+
+        @Test
+        @DisplayName("list size differences are reported")
+        void sizeMismatch() {
+            ValidationResult expected = transactionService.validateTransactionWithWage(
+                    new ValidatorRequest(SyntheticWorkload.UNCAPPED_WAGE, SyntheticWorkload.enriched(10, 2)));
+            ValidationResult actual = new ValidationResult(
+                    expected.validTransactions().subList(0, 9), expected.invalidTransactions());
+
+            assertEquals("validTransactions.size", ShadowVerifier.diff(expected, actual).getFirst().field());
+        }
+    }
+
+    @Nested
+    @DisplayName("sampled verification")
+    class VerifyTests {
+
+        @Test
+        @DisplayName("optimized returns and validation match the reference paths")
+        void matchesReference() throws InterruptedException {
+            ShadowVerifier verifier = verifier(true, 1.0);
+            ReturnsRequest request = SyntheticWorkload.returnsRequest(400, 12, 9);
+            FilterRequest filter = SyntheticWorkload.filterRequest(400, 12, 9);
+            ValidatorRequest validator = SyntheticWorkload.validatorRequest(400, 9);
+
+            verifier.verifyReturns("returns.nps", request, returnsService.calculateNpsReturns(request));
+            verifier.verifyReturns("returns.index", request, returnsService.calculateIndexReturns(request));
+            verifier.verifyFilter("transactions.filter", filter,
+                    transactionService.validateTransactionWithWageAndPeriods(filter));
+            verifier.verifyValidation("transactions.validator", validator,
+                    transactionService.validateTransactionWithWage(validator));
+            verifier.destroy();
+
+            assertEquals(4.0, count("match"));
+            assertEquals(0.0, count("divergent"));
+        }
+
+        @Test
+        @DisplayName("rules referenced by plan id are resolved for the reference path")
+        void planId() throws InterruptedException {
+            ShadowVerifier verifier = verifier(true, 1.0);
+            ReturnsRequest inline = SyntheticWorkload.returnsRequest(200, 6, 4);
+            String id = rulePlanService.register(new RulePlanRequest(inline.q(), inline.p(), inline.k())).planId();
+            ReturnsRequest request = new ReturnsRequest(inline.age(), inline.wage(), inline.inflation(),
+                    null, null, null, inline.transactions(), id);
+
+            verifier.verifyReturns("returns.nps", request, returnsService.calculateNpsReturns(request));
+            verifier.destroy();
+
+            assertEquals(1.0, count("match"));
+        }
+
+        @Test
+        @DisplayName("sampling a plan id request does not change which plan is evicted")
+        void planIdKeepsLruOrder() throws InterruptedException {
+            rulePlanService = new RulePlanService(new RulePlanProperties(2));
+            ShadowVerifier verifier = verifier(true, 1.0);
+            ReturnsRequest inline = SyntheticWorkload.returnsRequest(50, 4, 4);
+            String oldest = rulePlanService.register(new RulePlanRequest(inline.q(), inline.p(), inline.k())).planId();
+            ReturnsRequest other = SyntheticWorkload.returnsRequest(50, 5, 5);
+            String newer = rulePlanService.register(new RulePlanRequest(other.q(), other.p(), other.k())).planId();
+            ReturnsRequest request = new ReturnsRequest(inline.age(), inline.wage(), inline.inflation(),
+                    null, null, null, inline.transactions(), oldest);
+
+            verifier.verifyReturns("returns.nps", request, returnsService.calculateNpsReturns(
+                    new ReturnsRequest(inline.age(), inline.wage(), inline.inflation(),
+                            inline.q(), inline.p(), inline.k(), inline.transactions(), null)));
+            verifier.destroy();
+            ReturnsRequest third = SyntheticWorkload.returnsRequest(50, 6, 6);
+            rulePlanService.register(new RulePlanRequest(third.q(), third.p(), third.k()));
+
+            assertEquals(1.0, count("match"));
+            assertNull(rulePlanService.peek(oldest));
+            assertNotNull(rulePlanService.peek(newer));
+        }
+
+        @Test
+        @DisplayName("a divergent response is counted per field")
+        void divergence() throws InterruptedException {
+            ShadowVerifier verifier = verifier(true, 1.0);
+            ReturnsRequest request = SyntheticWorkload.returnsRequest(100, 4, 3);
+            ReturnsResponse wrong = withProfitOf(returnsService.calculateNpsReturns(request), 0, 0.01);
+
+            verifier.verifyReturns("returns.nps", request, wrong);
+            verifier.destroy();
+
+            assertEquals(1.0, count("divergent"));
+            assertEquals(1.0, registry.get("planner.shadow.divergences")
+                    .tag("field", "savingsByDates[].profit").counter().count());
+        }
+
+        @Test
+        @DisplayName("nothing is sampled when disabled")
+        void disabled() throws InterruptedException {
+            ShadowVerifier verifier = verifier(false, 1.0);
+            ReturnsRequest request = SyntheticWorkload.returnsRequest(10, 2, 3);
+
+            verifier.verifyReturns("returns.nps", request, returnsService.calculateNpsReturns(request));
+            verifier.destroy();
+
+            assertNull(registry.find("planner.shadow.comparisons").counter());
+        }
+    }
+
+    // helpers
+
+    private ShadowVerifier verifier(boolean enabled, double sampleRate) {
+        return new ShadowVerifier(new ShadowProperties(enabled, sampleRate, 64, 1), rulePlanService, registry);
+    }
+
+    private double count(String outcome) {
+        var counter = registry.find("planner.shadow.comparisons").tag("outcome", outcome).counters();
+        return counter.stream().mapToDouble(c -> c.count()).sum();
+    }
+
+    private static ReturnsResponse withProfitOf(ReturnsResponse response, int index, double delta) {
+        List<Saving> savings = new ArrayList<>(response.savingsByDates());
+        Saving s = savings.get(index);
+        savings.set(index, new Saving(s.temporalData(), s.amount(), s.profit() + delta, s.taxBenefit()));
+        return new ReturnsResponse(response.totalTransactionAmount(), response.totalCeiling(), savings);
+    }
+}
@@ -1,5 +1,9 @@
 package com.blackrock_hackathon.self_savings_planner.service;
 
+import com.blackrock_hackathon.self_savings_planner.config.RulePlanProperties;
+import com.blackrock_hackathon.self_savings_planner.dto.common.TemporalData;
+import com.blackrock_hackathon.self_savings_planner.dto.period.K;
+import com.blackrock_hackathon.self_savings_planner.dto.request.FilterRequest;
 import com.blackrock_hackathon.self_savings_planner.dto.request.TransactionInput;
 import com.blackrock_hackathon.self_savings_planner.dto.request.ValidatorRequest;
 import com.blackrock_hackathon.self_savings_planner.dto.response.EnrichedTransaction;
@@ -9,6 +13,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -20,7 +25,7 @@ class TransactionServiceTest {
 
     @BeforeEach
     void setUp() {
-        service = new TransactionService();
+        service = new TransactionService(new RulePlanService(new RulePlanProperties(100)));
     }
 
     @Nested
@@ -134,10 +139,67 @@ class TransactionServiceTest {
             assertTrue(result.validTransactions().isEmpty());
             assertTrue(result.invalidTransactions().isEmpty());
         }
+
+        @Test
+        @DisplayName("a streamed source gives the same result as the list, and a negative wage reads nothing")
+        void streamedSource() throws IOException {
+            List<EnrichedTransaction> transactions = List.of(
+                    enriched("2023-01-15 08:00:00", 375, 400, 25),
+                    enriched("2023-01-15 08:00:00", 375, 400, 25),
+                    enriched("2023-02-15 08:00:00", 375, 500, 125),
+                    enriched("2023-03-20 12:00:00", 620, 700, 80));
+
+            ValidationResult streamed = service.validateTransactionWithWage(900.0, transactions::forEach);
+            ValidationResult negative = service.validateTransactionWithWage(-1.0, sink -> fail("source was read"));
+
+            assertEquals(service.validateTransactionWithWage(new ValidatorRequest(900.0, transactions)), streamed);
+            assertEquals(service.validateTransactionWithWage(new ValidatorRequest(-1.0, transactions)), negative);
+        }
+    }
+
+    @Nested
+    @DisplayName("validateTransactionWithWageAndPeriods")
+    class FilterTests {
+
+        @Test
+        @DisplayName("marks K-period membership across overlapping periods")
+        void marksKMembership() {
+            var k = List.of(
+                    new K(td("2023-01-01 00:00:00", "2023-03-31 23:59:59")),
+                    new K(td("2023-03-01 00:00:00", "2023-04-30 23:59:59"))
+            );
+            var request = new FilterRequest(List.of(), List.of(), k, 50000.0, List.of(
+                    tx("2023-02-01 10:00:00", 375),
+                    tx("2023-04-30 23:59:59", 620),
+                    tx("2023-05-01 00:00:00", 250)
+            ));
+
+            ValidationResult result = service.validateTransactionWithWageAndPeriods(request);
+
+            assertEquals(3, result.validTransactions().size());
+            assertTrue(result.validTransactions().get(0).inKPeriod());
+            assertTrue(result.validTransactions().get(1).inKPeriod());
+            assertFalse(result.validTransactions().get(2).inKPeriod());
+        }
+
+        @Test
+        @DisplayName("no K periods means nothing is in a K period")
+        void noKPeriods() {
+            var request = new FilterRequest(null, null, null, 50000.0, List.of(tx("2023-02-01 10:00:00", 375)));
+
+            assertFalse(service.validateTransactionWithWageAndPeriods(request).validTransactions().getFirst().inKPeriod());
+        }
     }
 
     // helpers
 
+    private static TemporalData td(String start, String end) {
+        return new TemporalData(
+                LocalDateTime.parse(start.replace(" ", "T")),
+                LocalDateTime.parse(end.replace(" ", "T"))
+        );
+    }
+
     private static TransactionInput tx(String datetime, double amount) {
         return new TransactionInput(LocalDateTime.parse(datetime.replace(" ", "T")), amount);
     }